@@ -0,0 +1,50 @@
+package com.emaflores.spaceships.benchmark;
+
+import com.emaflores.spaceships.security.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthenticationBenchmark {
+
+    private DaoAuthenticationProvider bcrypt;
+    private AuthenticationProvider cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        bcrypt = new DaoAuthenticationProvider(passwordEncoder);
+        bcrypt.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("user")
+                .password(passwordEncoder.encode("password"))
+                .roles("USER")
+                .build()));
+        cached = new CachingAuthenticationProvider(bcrypt, Duration.ofMinutes(5), 10_000, new SimpleMeterRegistry());
+        cached.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication bcrypt() {
+        return bcrypt.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cached.authenticate(credentials());
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+    }
+}
@@ -0,0 +1,47 @@
+package com.emaflores.spaceships.benchmark;
+
+import com.emaflores.spaceships.SpaceshipsApplication;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkContext {
+
+    private static final String[] TYPES = {"Explorer", "Warship", "Freighter", "Shuttle", "Cruiser", "Scout", "Carrier", "Tanker"};
+    private static final String[] SOURCES = {"Star Trek", "Star Wars", "Battlestar Galactica", "Babylon 5", "The Expanse", "Firefly",
+            "Stargate", "Dune", "Foundation", "Mass Effect", "Halo", "Elite", "EVE", "Homeworld", "Alien", "Farscape"};
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(SpaceshipsApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--spring.rabbitmq.host=localhost",
+                        "--spring.rabbitmq.listener.simple.auto-startup=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, name(id), TYPES[id % TYPES.length], SOURCES[id % SOURCES.length]});
+            if (batch.size() == 10_000 || id == rows) {
+                jdbcTemplate.batchUpdate("INSERT INTO spaceship (id, name, type, source) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        context.getBean(SpaceshipNameIndex.class).rebuild();
+    }
+
+    static String name(int id) {
+        return String.format("Ship %07d", id);
+    }
+}
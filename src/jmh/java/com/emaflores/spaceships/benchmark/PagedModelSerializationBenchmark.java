@@ -0,0 +1,80 @@
+package com.emaflores.spaceships.benchmark;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PagedModelSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PagedResourcesAssembler<SpaceshipView> assembler;
+    private ObjectMapper halMapper;
+    private Page<SpaceshipView> page;
+    private PagedModel<EntityModel<SpaceshipView>> model;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = BenchmarkContext.start("serialization");
+        assembler = context.getBean(PagedResourcesAssembler.class);
+        halMapper = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(MappingJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.canWrite(PagedModel.class, MediaTypes.HAL_JSON))
+                .findFirst()
+                .orElseThrow()
+                .getObjectMapper();
+
+        List<SpaceshipView> content = new ArrayList<>(pageSize);
+        for (int id = 1; id <= pageSize; id++) {
+            content.add(new SpaceshipView((long) id, BenchmarkContext.name(id), "Explorer", "Star Trek", 0L));
+        }
+        page = new PageImpl<>(content, PageRequest.of(5, pageSize), 100_000);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/spaceships")));
+        model = assembler.toModel(page);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        context.close();
+    }
+
+    @Benchmark
+    public PagedModel<EntityModel<SpaceshipView>> assemble() {
+        return assembler.toModel(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return halMapper.writeValueAsBytes(model);
+    }
+
+    @Benchmark
+    public byte[] assembleAndSerialize() throws Exception {
+        return halMapper.writeValueAsBytes(assembler.toModel(page));
+    }
+}
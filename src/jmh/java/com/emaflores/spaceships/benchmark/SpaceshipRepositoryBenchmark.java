@@ -0,0 +1,38 @@
+package com.emaflores.spaceships.benchmark;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpaceshipRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private SpaceshipRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("repository" + rows);
+        BenchmarkContext.seed(context, rows);
+        repository = context.getBean(SpaceshipRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SpaceshipView> findByNameContainingIgnoreCase() {
+        return repository.findByNameContainingIgnoreCase("ship 00004");
+    }
+}
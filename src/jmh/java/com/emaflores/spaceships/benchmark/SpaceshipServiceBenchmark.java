@@ -0,0 +1,74 @@
+package com.emaflores.spaceships.benchmark;
+
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.service.SpaceshipService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpaceshipServiceBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"warm", "cold"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private SpaceshipService service;
+    private CacheManager cacheManager;
+    private final Pageable pageable = PageRequest.of(3, 20);
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("service");
+        BenchmarkContext.seed(context, ROWS);
+        service = context.getBean(SpaceshipService.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<SpaceshipView> findAll() {
+        prepare("spaceships");
+        return service.findAll(pageable);
+    }
+
+    @Benchmark
+    public Optional<PreSerialized<SpaceshipView>> findById() {
+        prepare("spaceship");
+        nextId = nextId % 100 + 1;
+        return service.findById(nextId);
+    }
+
+    @Benchmark
+    public PreSerialized<List<SpaceshipView>> findByName() {
+        prepare("spaceshipsByName");
+        return service.findByName("Ship 00012");
+    }
+
+    private void prepare(String cacheName) {
+        if ("cold".equals(cache)) {
+            Cache target = cacheManager.getCache(cacheName);
+            if (target != null) {
+                target.clear();
+            }
+        }
+    }
+}
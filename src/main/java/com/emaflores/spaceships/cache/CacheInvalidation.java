@@ -0,0 +1,24 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+
+public record CacheInvalidation(Type type, Long id, SpaceshipView before, SpaceshipView after) {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        CLEARED
+    }
+
+    public static CacheInvalidation saved(SpaceshipView before, SpaceshipView after) {
+        return new CacheInvalidation(Type.SAVED, after.id(), before, after);
+    }
+
+    public static CacheInvalidation deleted(Long id, SpaceshipView before) {
+        return new CacheInvalidation(Type.DELETED, id, before, null);
+    }
+
+    public static CacheInvalidation cleared() {
+        return new CacheInvalidation(Type.CLEARED, null, null, null);
+    }
+}
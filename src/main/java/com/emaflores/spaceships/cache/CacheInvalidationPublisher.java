@@ -0,0 +1,134 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.config.RabbitMQConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Component
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spaceships.cache.invalidation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${spaceships.cache.invalidation.buffer-capacity:1000}")
+    private int bufferCapacity = 1000;
+
+    private BlockingQueue<CacheInvalidation> buffer;
+    private volatile boolean overflowed;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Counter overflowCounter;
+    private Counter receivedCounter;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        publishedCounter = count("published");
+        failedCounter = count("failed");
+        overflowCounter = count("overflowed");
+        receivedCounter = count("received");
+        Gauge.builder("spaceships.cache.invalidations.buffer", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    // Called on the request thread, so the broker round trip is left to publishBuffered.
+    public void publish(CacheInvalidation invalidation) {
+        if (enabled && !buffer.offer(invalidation)) {
+            overflowed = true;
+        }
+    }
+
+    // A failed send stays at the head of the buffer and is retried on the next run; once the buffer
+    // has overflowed, its contents are superseded by a single CLEARED invalidation.
+    @Scheduled(fixedDelayString = "${spaceships.cache.invalidation.publish-interval-ms:50}")
+    public void publishBuffered() {
+        if (overflowed) {
+            buffer.clear();
+            overflowed = false;
+            overflowCounter.increment();
+            if (!buffer.offer(CacheInvalidation.cleared())) {
+                overflowed = true;
+                return;
+            }
+        }
+        for (CacheInvalidation invalidation = buffer.peek(); invalidation != null; invalidation = buffer.peek()) {
+            if (!send(invalidation)) {
+                return;
+            }
+            buffer.poll();
+        }
+    }
+
+    // Returns false when the broker could not be reached and the invalidation should be retried.
+    private boolean send(CacheInvalidation invalidation) {
+        try {
+            Message message = MessageBuilder.withBody(objectMapper.writeValueAsBytes(invalidation))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .setAppId(nodeId)
+                    .build();
+            rabbitTemplate.send(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.CACHE_INVALIDATION_ROUTING_KEY, message);
+            publishedCounter.increment();
+            return true;
+        } catch (IOException e) {
+            failedCounter.increment();
+            logger.warn("Dropping cache invalidation {} that could not be serialized: {}", invalidation.type(), e.getMessage());
+            return true;
+        } catch (AmqpException e) {
+            failedCounter.increment();
+            logger.warn("Could not broadcast cache invalidation {}: {}", invalidation.type(), e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean isOwn(Message message) {
+        return nodeId.equals(message.getMessageProperties().getAppId());
+    }
+
+    public CacheInvalidation read(Message message) {
+        try {
+            CacheInvalidation invalidation = objectMapper.readValue(message.getBody(), CacheInvalidation.class);
+            receivedCounter.increment();
+            return invalidation;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Counter count(String outcome) {
+        return Counter.builder("spaceships.cache.invalidations.broadcast")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
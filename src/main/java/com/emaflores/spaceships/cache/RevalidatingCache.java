@@ -0,0 +1,127 @@
+package com.emaflores.spaceships.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class RevalidatingCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevalidatingCache.class);
+    private static final int MAX_STALE_ENTRIES = 10_000;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> stale;
+    private final Executor executor;
+    private final Map<Object, Object> refreshing = new ConcurrentHashMap<>();
+
+    public RevalidatingCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, boolean allowNullValues,
+                             Duration maxStale, Executor executor) {
+        super(name, cache, allowNullValues);
+        this.stale = maxStale == null ? null : Caffeine.newBuilder()
+                .expireAfterWrite(maxStale)
+                .maximumSize(MAX_STALE_ENTRIES)
+                .build();
+        this.executor = executor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (stale == null) {
+            return super.get(key, valueLoader);
+        }
+        ValueWrapper current = get(key);
+        if (current != null) {
+            return (T) current.get();
+        }
+        Object previous = stale.getIfPresent(key);
+        if (previous == null) {
+            return super.get(key, valueLoader);
+        }
+        revalidate(key, valueLoader);
+        return (T) fromStoreValue(previous);
+    }
+
+    @Override
+    public void evict(Object key) {
+        retire(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        retire(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        retireAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        retireAll();
+        return super.invalidate();
+    }
+
+    public void keepStale(Object key, Object storeValue) {
+        refreshing.remove(key);
+        if (stale != null) {
+            stale.put(key, storeValue);
+        }
+    }
+
+    private <T> void revalidate(Object key, Callable<T> valueLoader) {
+        Object token = new Object();
+        if (refreshing.putIfAbsent(key, token) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    T value = valueLoader.call();
+                    // An invalidation that arrived while loading removed the token, so its result is dropped.
+                    refreshing.computeIfPresent(key, (k, current) -> {
+                        if (current != token) {
+                            return current;
+                        }
+                        put(key, value);
+                        stale.invalidate(key);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    refreshing.remove(key, token);
+                    logger.warn("Could not revalidate key '{}' of cache '{}': {}", key, getName(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key, token);
+        }
+    }
+
+    private void retire(Object key) {
+        refreshing.remove(key);
+        if (stale != null) {
+            Object value = getNativeCache().getIfPresent(key);
+            if (value != null) {
+                stale.put(key, value);
+            }
+        }
+    }
+
+    private void retireAll() {
+        refreshing.clear();
+        if (stale != null) {
+            stale.putAll(getNativeCache().asMap());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class SpaceshipCacheInvalidator {
+
+    public static final String PAGES_CACHE = "spaceships";
+    public static final String BY_ID_CACHE = "spaceship";
+    public static final String BY_NAME_CACHE = "spaceshipsByName";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheInvalidationPublisher publisher;
+
+    @Autowired
+    private SpaceshipStore store;
+
+    @Autowired
+    private SpaceshipNameIndex nameIndex;
+
+    @Autowired
+    private SpaceshipTextIndex textIndex;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastInvalidationNanos = Long.MIN_VALUE;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Map<List<String>, Counter> counters = new ConcurrentHashMap<>();
+
+    public Optional<SpaceshipView> cached(Long id) {
+        Cache cache = cacheManager.getCache(BY_ID_CACHE);
+        Cache.ValueWrapper wrapper = cache == null ? null : cache.get(id);
+        if (wrapper != null && wrapper.get() instanceof PreSerialized<?> cached && cached.value() instanceof SpaceshipView spaceship) {
+            return Optional.of(spaceship);
+        }
+        return Optional.empty();
+    }
+
+    // Values read before a concurrent invalidation must not be written back to the caches afterwards.
+    public long generation() {
+        return generation.get();
+    }
+
+    // While replicas may still lag behind the last write, reads that fill the caches have to go to the primary.
+    public boolean invalidatedWithin(Duration window) {
+        long last = lastInvalidationNanos;
+        return last != Long.MIN_VALUE && System.nanoTime() - last < window.toNanos();
+    }
+
+    public void saved(SpaceshipView before, SpaceshipView after) {
+        broadcast(CacheInvalidation.saved(before, after));
+    }
+
+    public void deleted(Long id, SpaceshipView before) {
+        broadcast(CacheInvalidation.deleted(id, before));
+    }
+
+    public void clearAll() {
+        broadcast(CacheInvalidation.cleared());
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}", autoStartup = "${spaceships.cache.invalidation.enabled:true}")
+    public void onInvalidation(Message message) {
+        if (!publisher.isOwn(message)) {
+            apply(publisher.read(message), true);
+        }
+    }
+
+    private void broadcast(CacheInvalidation invalidation) {
+        apply(invalidation, false);
+        publisher.publish(invalidation);
+    }
+
+    void apply(CacheInvalidation invalidation, boolean locally) {
+        lastInvalidationNanos = System.nanoTime();
+        generation.incrementAndGet();
+        if (locally) {
+            applyToIndexes(invalidation);
+        }
+        switch (invalidation.type()) {
+            case SAVED -> {
+                store.remove(invalidation.id());
+                evictById(invalidation.id(), locally);
+                evictByName(invalidation.before(), invalidation.after(), locally);
+                evictPages(invalidation.before(), invalidation.after(), locally);
+            }
+            case DELETED -> {
+                store.remove(invalidation.id());
+                evictById(invalidation.id(), locally);
+                if (invalidation.before() == null) {
+                    clear(BY_NAME_CACHE, locally);
+                    clear(PAGES_CACHE, locally);
+                } else {
+                    evictByName(invalidation.before(), null, locally);
+                    evictPages(invalidation.before(), null, locally);
+                }
+            }
+            case CLEARED -> {
+                store.clear();
+                clear(BY_ID_CACHE, locally);
+                clear(BY_NAME_CACHE, locally);
+                clear(PAGES_CACHE, locally);
+            }
+        }
+    }
+
+    // The writing node updates its own search indexes; the other nodes only learn about the change from here.
+    private void applyToIndexes(CacheInvalidation invalidation) {
+        switch (invalidation.type()) {
+            case SAVED -> {
+                nameIndex.put(invalidation.after().id(), invalidation.after().name());
+                textIndex.put(invalidation.after());
+            }
+            case DELETED -> {
+                nameIndex.remove(invalidation.id());
+                textIndex.remove(invalidation.id());
+            }
+            case CLEARED -> rebuildIndexes();
+        }
+    }
+
+    // Rebuilds read the whole table, so they run off the listener thread, and CLEARED messages that arrive
+    // before a queued rebuild has started are served by that one rebuild.
+    private void rebuildIndexes() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildPending.set(false);
+                nameIndex.rebuild();
+                textIndex.rebuild();
+            });
+        }
+    }
+
+    private void evictById(Long id, boolean locally) {
+        Cache cache = cacheManager.getCache(BY_ID_CACHE);
+        if (cache == null) {
+            return;
+        }
+        boolean evicted = locally && cache instanceof TwoLevelCache twoLevelCache
+                ? twoLevelCache.evictLocally(id)
+                : cache.evictIfPresent(id);
+        if (evicted) {
+            count(BY_ID_CACHE, "evicted", 1);
+        }
+    }
+
+    private void evictByName(SpaceshipView before, SpaceshipView after, boolean locally) {
+        Cache cache = cacheManager.getCache(BY_NAME_CACHE);
+        if (cache == null) {
+            return;
+        }
+        Map<Object, Object> entries = entries(cache);
+        if (entries == null) {
+            cache.clear();
+            return;
+        }
+        clearRemoteTier(cache, locally);
+        String beforeName = lowerName(before);
+        String afterName = lowerName(after);
+        int[] evictedAndRetained = new int[2];
+        entries.entrySet().removeIf(entry -> {
+            String term = String.valueOf(entry.getKey()).toLowerCase(Locale.ROOT);
+            boolean affected = (beforeName != null && beforeName.contains(term))
+                    || (afterName != null && afterName.contains(term));
+            if (affected) {
+                keepStale(cache, entry.getKey(), entry.getValue());
+            }
+            evictedAndRetained[affected ? 0 : 1]++;
+            return affected;
+        });
+        count(BY_NAME_CACHE, "evicted", evictedAndRetained[0]);
+        count(BY_NAME_CACHE, "retained", evictedAndRetained[1]);
+    }
+
+    private void evictPages(SpaceshipView before, SpaceshipView after, boolean locally) {
+        Cache cache = cacheManager.getCache(PAGES_CACHE);
+        if (cache == null) {
+            return;
+        }
+        Map<Object, Object> entries = entries(cache);
+        if (entries == null) {
+            cache.clear();
+            return;
+        }
+        clearRemoteTier(cache, locally);
+        int evicted = 0;
+        int adjusted = 0;
+        int retained = 0;
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (!(entry.getValue() instanceof Page<?> cachedPage)) {
+                entries.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Page<SpaceshipView> page = (Page<SpaceshipView>) cachedPage;
+            if (isAffected(page, before, after)) {
+                keepStale(cache, entry.getKey(), page);
+                entries.remove(entry.getKey(), page);
+                evicted++;
+            } else if (before == null || after == null) {
+                long total = page.getTotalElements() + (before == null ? 1 : -1);
+                entries.replace(entry.getKey(), page, new PageImpl<>(page.getContent(), page.getPageable(), total));
+                adjusted++;
+            } else {
+                retained++;
+            }
+        }
+        count(PAGES_CACHE, "evicted", evicted);
+        count(PAGES_CACHE, "adjusted", adjusted);
+        count(PAGES_CACHE, "retained", retained);
+    }
+
+    static boolean isAffected(Page<SpaceshipView> page, SpaceshipView before, SpaceshipView after) {
+        if (page.isEmpty()) {
+            return true;
+        }
+        Long id = after != null ? after.id() : before.id();
+        if (page.getContent().stream().anyMatch(s -> id.equals(s.id()))) {
+            return true;
+        }
+        Comparator<SpaceshipView> comparator = comparator(page.getSort());
+        SpaceshipView first = page.getContent().get(0);
+        SpaceshipView last = page.getContent().get(page.getNumberOfElements() - 1);
+        if (before == null || after == null) {
+            SpaceshipView changed = after != null ? after : before;
+            return !page.hasNext() || comparator.compare(changed, last) <= 0;
+        }
+        SpaceshipView low = comparator.compare(before, after) <= 0 ? before : after;
+        SpaceshipView high = low == before ? after : before;
+        boolean startsBeforeEnd = !page.hasNext() || comparator.compare(low, last) <= 0;
+        boolean endsAfterStart = page.isFirst() || comparator.compare(high, first) >= 0;
+        return startsBeforeEnd && endsAfterStart;
+    }
+
+    static Comparator<SpaceshipView> comparator(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Comparator.comparing(SpaceshipView::id);
+        }
+        Comparator<SpaceshipView> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<SpaceshipView> next = comparator(order);
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static Comparator<SpaceshipView> comparator(Sort.Order order) {
+        Comparator<String> text = Comparator.nullsFirst(order.isIgnoreCase()
+                ? String.CASE_INSENSITIVE_ORDER
+                : Comparator.<String>naturalOrder());
+        return switch (order.getProperty()) {
+            case "name" -> Comparator.comparing(SpaceshipView::name, text);
+            case "type" -> Comparator.comparing(SpaceshipView::type, text);
+            case "source" -> Comparator.comparing(SpaceshipView::source, text);
+            default -> Comparator.comparing(SpaceshipView::id, Comparator.nullsFirst(Comparator.<Long>naturalOrder()));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> entries(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+            return (Map<Object, Object>) caffeineCache.asMap();
+        }
+        if (nativeCache instanceof Map<?, ?> map) {
+            return (Map<Object, Object>) map;
+        }
+        return null;
+    }
+
+    private void clear(String cacheName, boolean locally) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (locally && cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.clearLocally();
+        } else {
+            cache.clear();
+        }
+        count(cacheName, "cleared", 1);
+    }
+
+    // Range-based eviction only sees this node's entries, so the shared tier is dropped as a whole.
+    private static void clearRemoteTier(Cache cache, boolean locally) {
+        if (!locally && cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.clearRemotely();
+        }
+    }
+
+    private static void keepStale(Cache cache, Object key, Object value) {
+        if (cache instanceof RevalidatingCache revalidatingCache) {
+            revalidatingCache.keepStale(key, value);
+        }
+    }
+
+    private static String lowerName(SpaceshipView spaceship) {
+        return spaceship == null || spaceship.name() == null ? null : spaceship.name().toLowerCase(Locale.ROOT);
+    }
+
+    // Invalidations run on every write, so the meters are looked up once and incremented once per outcome.
+    private void count(String cacheName, String outcome, int amount) {
+        if (amount == 0) {
+            return;
+        }
+        counters.computeIfAbsent(List.of(cacheName, outcome), key -> Counter.builder("spaceships.cache.invalidations")
+                        .tag("cache", cacheName)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment(amount);
+    }
+}
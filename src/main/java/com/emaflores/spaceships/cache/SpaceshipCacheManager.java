@@ -0,0 +1,44 @@
+package com.emaflores.spaceships.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+public class SpaceshipCacheManager extends CaffeineCacheManager {
+
+    private final CacheManager remote;
+    private final Set<String> remoteCacheNames;
+    private final Set<String> revalidatedCacheNames;
+    private final Duration maxStale;
+    private final Executor executor;
+
+    public SpaceshipCacheManager(CacheManager remote, Set<String> remoteCacheNames) {
+        this(remote, remoteCacheNames, Set.of(), null, null);
+    }
+
+    public SpaceshipCacheManager(CacheManager remote, Set<String> remoteCacheNames, Set<String> revalidatedCacheNames,
+                                 Duration maxStale, Executor executor) {
+        this.remote = remote;
+        this.remoteCacheNames = Set.copyOf(remoteCacheNames);
+        this.revalidatedCacheNames = Set.copyOf(revalidatedCacheNames);
+        this.maxStale = maxStale;
+        this.executor = executor;
+    }
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        Duration staleness = revalidatedCacheNames.contains(name) ? maxStale : null;
+        Cache remoteCache = remote != null && remoteCacheNames.contains(name) ? remote.getCache(name) : null;
+        if (remoteCache != null) {
+            return new TwoLevelCache(name, cache, isAllowNullValues(), remoteCache, staleness, executor);
+        }
+        if (staleness != null) {
+            return new RevalidatingCache(name, cache, isAllowNullValues(), staleness, executor);
+        }
+        return super.adaptCaffeineCache(name, cache);
+    }
+}
@@ -0,0 +1,331 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+@Component
+public class SpaceshipStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CODES = Short.MAX_VALUE;
+    private static final int SLOT_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + Short.BYTES + Short.BYTES + Byte.BYTES;
+    private static final int EPOCHS_PER_TTL = 8;
+    private static final int SWEEP_CHUNK = 4096;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spaceships.store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spaceships.store.maximum-size:5000000}")
+    private int maximumSize = 5_000_000;
+
+    @Value("${spaceships.store.ttl:10m}")
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private Clock clock = Clock.systemUTC();
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Short> codes = new HashMap<>();
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private volatile String[] dictionary = new String[]{null};
+    private int size;
+    private long nameBytes;
+    private long invalidations;
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (enabled) {
+            Gauge.builder("spaceships.store.size", this, SpaceshipStore::size).register(meterRegistry);
+            Gauge.builder("spaceships.store.memory", this, SpaceshipStore::estimatedBytes)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    public Optional<SpaceshipView> get(long id) {
+        if (!enabled || id <= 0) {
+            return Optional.empty();
+        }
+        long stamp = lock.tryOptimisticRead();
+        Row row = read(id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                row = read(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (row == null || isExpired(row.epoch(), epoch())) {
+            return Optional.empty();
+        }
+        String[] values = dictionary;
+        return Optional.of(new SpaceshipView(id, new String(row.name(), StandardCharsets.UTF_8),
+                values[row.type()], values[row.source()], row.version()));
+    }
+
+    // Rows read from the database before a concurrent invalidation are not stored afterwards.
+    public long invalidations() {
+        long stamp = lock.readLock();
+        try {
+            return invalidations;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(SpaceshipView spaceship, long expectedInvalidations) {
+        if (!enabled || spaceship.id() == null || spaceship.id() <= 0 || spaceship.name() == null) {
+            return;
+        }
+        byte[] name = spaceship.name().getBytes(StandardCharsets.UTF_8);
+        long stamp = lock.writeLock();
+        try {
+            if (invalidations != expectedInvalidations) {
+                return;
+            }
+            int type = code(spaceship.type());
+            int source = code(spaceship.source());
+            if (type < 0 || source < 0) {
+                return;
+            }
+            Table current = table;
+            int slot = current.slotOf(spaceship.id());
+            if (current.keys[slot] == 0L) {
+                if (size >= maximumSize) {
+                    return;
+                }
+                if ((size + 1) * 4L > current.keys.length * 3L) {
+                    current = resize(current);
+                    slot = current.slotOf(spaceship.id());
+                }
+                size++;
+            } else {
+                nameBytes -= current.names[slot].length;
+            }
+            current.keys[slot] = spaceship.id();
+            current.versions[slot] = spaceship.version();
+            current.names[slot] = name;
+            current.types[slot] = (short) type;
+            current.sources[slot] = (short) source;
+            current.epochs[slot] = epoch();
+            nameBytes += name.length;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            Table current = table;
+            int slot = current.slotOf(id);
+            if (current.keys[slot] != 0L) {
+                nameBytes -= current.names[slot].length;
+                current.removeAt(slot);
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            invalidations++;
+            table = new Table(INITIAL_CAPACITY);
+            size = 0;
+            nameBytes = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // A lost invalidation would otherwise keep a row stale forever. Expired rows are already misses in get(),
+    // the sweep only reclaims their slots, a chunk at a time so that readers are not blocked for long.
+    @Scheduled(fixedDelayString = "${spaceships.store.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+        Table swept = table;
+        for (int from = 0; from < swept.keys.length; from += SWEEP_CHUNK) {
+            long stamp = lock.writeLock();
+            try {
+                if (table != swept) {
+                    return;
+                }
+                byte now = epoch();
+                int to = Math.min(from + SWEEP_CHUNK, swept.keys.length);
+                for (int slot = from; slot < to; ) {
+                    if (swept.keys[slot] != 0L && isExpired(swept.epochs[slot], now)) {
+                        nameBytes -= swept.names[slot].length;
+                        swept.removeAt(slot);
+                        size--;
+                    } else {
+                        slot++;
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) table.keys.length * SLOT_BYTES + (long) size * ARRAY_HEADER_BYTES + nameBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Row read(long id) {
+        Table current = table;
+        int slot = current.slotOf(id);
+        if (current.keys[slot] != id) {
+            return null;
+        }
+        return new Row(current.versions[slot], current.names[slot], current.types[slot], current.sources[slot],
+                current.epochs[slot]);
+    }
+
+    // Load times are kept as one byte per row, counting eighths of the TTL; the sweep runs far more often than
+    // the 32 TTLs it takes for the counter to wrap around.
+    private byte epoch() {
+        return (byte) (clock.millis() / Math.max(ttl.toMillis() / EPOCHS_PER_TTL, 1));
+    }
+
+    private static boolean isExpired(byte loaded, byte now) {
+        return ((now - loaded) & 0xFF) >= EPOCHS_PER_TTL;
+    }
+
+    private int code(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Short code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] values = dictionary;
+        if (values.length > MAX_CODES) {
+            return -1;
+        }
+        String[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        codes.put(value, (short) values.length);
+        dictionary = grown;
+        return values.length;
+    }
+
+    private Table resize(Table current) {
+        Table resized = new Table(current.keys.length * 2);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != 0L) {
+                int slot = resized.slotOf(current.keys[i]);
+                resized.keys[slot] = current.keys[i];
+                resized.versions[slot] = current.versions[i];
+                resized.names[slot] = current.names[i];
+                resized.types[slot] = current.types[i];
+                resized.sources[slot] = current.sources[i];
+                resized.epochs[slot] = current.epochs[i];
+            }
+        }
+        table = resized;
+        return resized;
+    }
+
+    private record Row(long version, byte[] name, short type, short source, byte epoch) {
+    }
+
+    // Ids are positive, so 0 marks an empty slot.
+    private static final class Table {
+        final long[] keys;
+        final long[] versions;
+        final byte[][] names;
+        final short[] types;
+        final short[] sources;
+        final byte[] epochs;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            versions = new long[capacity];
+            names = new byte[capacity][];
+            types = new short[capacity];
+            sources = new short[capacity];
+            epochs = new byte[capacity];
+        }
+
+        int slotOf(long id) {
+            int mask = keys.length - 1;
+            int slot = hash(id) & mask;
+            for (int probes = 0; probes < keys.length && keys[slot] != 0L && keys[slot] != id; probes++) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Backward-shift deletion keeps probe sequences intact without tombstones.
+        void removeAt(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0L; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    versions[hole] = versions[next];
+                    names[hole] = names[next];
+                    types[hole] = types[next];
+                    sources[hole] = sources[next];
+                    epochs[hole] = epochs[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0L;
+            names[hole] = null;
+        }
+
+        private static int hash(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
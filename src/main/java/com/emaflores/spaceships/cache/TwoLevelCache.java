@@ -0,0 +1,131 @@
+package com.emaflores.spaceships.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+public class TwoLevelCache extends RevalidatingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final Cache remote;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> near, boolean allowNullValues, Cache remote) {
+        this(name, near, allowNullValues, remote, null, null);
+    }
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> near, boolean allowNullValues, Cache remote,
+                         Duration maxStale, Executor executor) {
+        super(name, near, allowNullValues, maxStale, executor);
+        this.remote = remote;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper wrapper = remote(() -> remote.get(key), null);
+        if (wrapper == null) {
+            return null;
+        }
+        Object storeValue = toStoreValue(wrapper.get());
+        getNativeCache().put(key, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(key, () -> {
+            ValueWrapper wrapper = remote(() -> remote.get(key), null);
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+            T value = valueLoader.call();
+            remote(() -> {
+                remote.put(key, value);
+                return null;
+            }, null);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        remote(() -> {
+            remote.put(key, value);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            remote(() -> remote.putIfAbsent(key, value), null);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        remote(() -> {
+            remote.evict(key);
+            return null;
+        }, null);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean near = super.evictIfPresent(key);
+        return remote(() -> remote.evictIfPresent(key), false) || near;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        remote(() -> {
+            remote.clear();
+            return null;
+        }, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean near = super.invalidate();
+        return remote(remote::invalidate, false) || near;
+    }
+
+    public boolean evictLocally(Object key) {
+        return super.evictIfPresent(key);
+    }
+
+    public void clearLocally() {
+        super.clear();
+    }
+
+    public void clearRemotely() {
+        remote(() -> {
+            remote.clear();
+            return null;
+        }, null);
+    }
+
+    private <T> T remote(Supplier<T> operation, T fallback) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            logger.warn("Remote cache '{}' unavailable, using the local tier only: {}", getName(), e.getMessage());
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.emaflores.spaceships.config;
+
+import com.emaflores.spaceships.cache.SpaceshipCacheManager;
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CaffeineCacheManager cacheManager(CacheProperties properties, ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                             @Qualifier("applicationTaskExecutor") Executor executor,
+                                             @Value("${spring.cache.cache-names:}") List<String> cacheNames) {
+        CacheManager remote = properties.remote().enabled() ? remoteCacheManager(properties, connectionFactory.getObject()) : null;
+        CacheProperties.StaleWhileRevalidate staleWhileRevalidate = properties.staleWhileRevalidate();
+        SpaceshipCacheManager cacheManager = new SpaceshipCacheManager(remote, properties.remote().caches(),
+                staleWhileRevalidate.enabled() ? staleWhileRevalidate.caches() : Set.of(),
+                staleWhileRevalidate.maxStale(), executor);
+        cacheManager.setCacheNames(cacheNames);
+        registerCaches(cacheManager, properties);
+        return cacheManager;
+    }
+
+    private RedisCacheManager remoteCacheManager(CacheProperties properties, RedisConnectionFactory connectionFactory) {
+        RedisCacheManager remote = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader())
+                        .entryTtl(properties.remote().ttl())
+                        .prefixCacheNameWith("spaceships:"))
+                .build();
+        remote.initializeCaches();
+        return remote;
+    }
+
+    private static void registerCaches(CaffeineCacheManager cacheManager, CacheProperties properties) {
+        properties.specs().forEach((name, spec) -> cacheManager.registerCustomCache(name, buildCache(spec).build()));
+    }
+
+    static Caffeine<Object, Object> buildCache(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        if (spec.contains("maximumWeight")) {
+            return builder.weigher((Object key, Object value) -> weigh(value));
+        }
+        return builder;
+    }
+
+    static int weigh(Object value) {
+        if (value instanceof PreSerialized<?> serialized) {
+            return weigh(serialized.value());
+        }
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        return 1;
+    }
+}
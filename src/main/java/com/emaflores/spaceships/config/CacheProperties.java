@@ -0,0 +1,27 @@
+package com.emaflores.spaceships.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "spaceships.cache")
+public record CacheProperties(Map<String, String> specs, @DefaultValue Remote remote, @DefaultValue Invalidation invalidation,
+                              @DefaultValue StaleWhileRevalidate staleWhileRevalidate) {
+
+    public record Remote(boolean enabled, @DefaultValue("10m") Duration ttl, @DefaultValue("spaceship") Set<String> caches) {
+    }
+
+    public record Invalidation(@DefaultValue("true") boolean enabled) {
+    }
+
+    public record StaleWhileRevalidate(boolean enabled, @DefaultValue("30s") Duration maxStale,
+                                       @DefaultValue("spaceships") Set<String> caches) {
+    }
+
+    public CacheProperties {
+        specs = specs == null ? Map.of() : Map.copyOf(specs);
+    }
+}
@@ -0,0 +1,16 @@
+package com.emaflores.spaceships.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "spaceships.limiter")
+public record ConcurrencyLimitProperties(@DefaultValue("true") boolean enabled, @DefaultValue("1s") Duration retryAfter,
+                                         @DefaultValue Limit read, @DefaultValue Limit write) {
+
+    public record Limit(@DefaultValue("20") int initial, @DefaultValue("2") int min, @DefaultValue("200") int max,
+                        @DefaultValue("250ms") Duration latencyTarget, @DefaultValue("0.9") double backoffRatio,
+                        @DefaultValue("20") int maxQueue, @DefaultValue("20ms") Duration maxWait) {
+    }
+}
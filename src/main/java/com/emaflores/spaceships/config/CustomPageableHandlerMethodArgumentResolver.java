@@ -16,7 +16,7 @@ import java.util.List;
 @Component
 public class CustomPageableHandlerMethodArgumentResolver implements HandlerMethodArgumentResolver {
 
-    private static final List<String> ALLOWED_SORT_PROPERTIES = Arrays.asList("id", "name", "type", "source");
+    public static final List<String> ALLOWED_SORT_PROPERTIES = Arrays.asList("id", "name", "type", "source");
 
     private final PageableHandlerMethodArgumentResolver delegate;
 
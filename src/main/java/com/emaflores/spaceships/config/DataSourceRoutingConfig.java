@@ -0,0 +1,63 @@
+package com.emaflores.spaceships.config;
+
+import com.emaflores.spaceships.datasource.ReadYourWritesTracker;
+import com.emaflores.spaceships.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(prefix = "spaceships.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceRoutingProperties routing, DataSourceProperties properties,
+                                                             Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, "primary", environment, meterRegistry);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.replicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = routing.replicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+            dataSource.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+            configure(dataSource, "replica-" + i, environment, meterRegistry);
+            dataSource.setReadOnly(true);
+            dataSource.setInitializationFailTimeout(-1);
+            replicas.add(dataSource);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, routing.strategy(),
+                new ReadYourWritesTracker(routing.readYourWrites()), routing.replicaRetry(), Clock.systemUTC());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static void configure(HikariDataSource dataSource, String poolName, Environment environment, MeterRegistry meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
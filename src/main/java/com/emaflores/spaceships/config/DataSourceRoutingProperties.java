@@ -0,0 +1,27 @@
+package com.emaflores.spaceships.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "spaceships.datasource.routing")
+public record DataSourceRoutingProperties(
+        boolean enabled,
+        @DefaultValue("ROUND_ROBIN") Strategy strategy,
+        @DefaultValue("5s") Duration readYourWrites,
+        @DefaultValue("30s") Duration replicaRetry,
+        List<Replica> replicas) {
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    public record Replica(String url, String username, String password) {
+    }
+
+    public DataSourceRoutingProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+    }
+}
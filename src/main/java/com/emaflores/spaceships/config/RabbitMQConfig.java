@@ -1,6 +1,10 @@
 package com.emaflores.spaceships.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,6 +14,23 @@ public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "spaceshipsExchange";
     public static final String QUEUE_NAME = "spaceshipsQueue";
     public static final String ROUTING_KEY = "spaceships.routingKey";
+    public static final String CACHE_INVALIDATION_ROUTING_KEY = "spaceships.cache.invalidation";
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+
+    @Value("${spaceships.messaging.consumer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${spaceships.messaging.consumer.batch-timeout-ms:500}")
+    private long batchTimeoutMs;
+
+    @Value("${spaceships.messaging.consumer.prefetch:500}")
+    private int prefetch;
+
+    @Value("${spaceships.messaging.consumer.concurrency:1}")
+    private int concurrency;
+
+    @Value("${spaceships.messaging.consumer.max-concurrency:4}")
+    private int maxConcurrency;
 
     @Bean
     public TopicExchange exchange() {
@@ -25,4 +46,30 @@ public class RabbitMQConfig {
     public Binding binding(Queue queue, TopicExchange exchange) {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
+
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding cacheInvalidationBinding(Queue cacheInvalidationQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(cacheInvalidationQueue).to(exchange).with(CACHE_INVALIDATION_ROUTING_KEY);
+    }
+
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                              ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchListener(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchTimeoutMs);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        return factory;
+    }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.emaflores.spaceships.config;
 
+import com.emaflores.spaceships.security.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
@@ -13,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -41,6 +47,15 @@ public class SecurityConfig {
     @Value("${security.admin.password}")
     private String adminPassword;
 
+    @Value("${spaceships.security.credential-cache.enabled:true}")
+    private boolean credentialCacheEnabled;
+
+    @Value("${spaceships.security.credential-cache.ttl:5m}")
+    private Duration credentialCacheTtl;
+
+    @Value("${spaceships.security.credential-cache.maximum-size:10000}")
+    private long credentialCacheMaximumSize;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -75,6 +90,16 @@ public class SecurityConfig {
         return userDetailsService;
     }
 
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, MeterRegistry meterRegistry) {
+        var daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        if (!credentialCacheEnabled) {
+            return daoAuthenticationProvider;
+        }
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, credentialCacheTtl, credentialCacheMaximumSize, meterRegistry);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -0,0 +1,32 @@
+package com.emaflores.spaceships.controller;
+
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.MessageLogView;
+import com.emaflores.spaceships.service.MessageLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/messages")
+public class MessageLogController {
+
+    @Autowired
+    private MessageLogService messageLogService;
+
+    @GetMapping
+    public ResponseEntity<CursorPage<MessageLogView>> getMessages(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            Pageable pageable) {
+        return ResponseEntity.ok(messageLogService.find(from, to, cursor, pageable.getPageSize()));
+    }
+}
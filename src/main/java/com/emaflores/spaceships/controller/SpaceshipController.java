@@ -1,24 +1,44 @@
 package com.emaflores.spaceships.controller;
 
+import com.emaflores.spaceships.dto.BulkImportResult;
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.dto.SpaceshipView;
 import com.emaflores.spaceships.entity.Spaceship;
 import com.emaflores.spaceships.exception.DuplicateSpaceshipException;
 import com.emaflores.spaceships.exception.ErrorResponse;
+import com.emaflores.spaceships.exception.InvalidExportFormatException;
 import com.emaflores.spaceships.exception.InvalidIdException;
-import com.emaflores.spaceships.service.MessageProducerService;
+import com.emaflores.spaceships.service.SpaceshipExportService;
+import com.emaflores.spaceships.service.SpaceshipImportService;
 import com.emaflores.spaceships.service.SpaceshipService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/spaceships")
@@ -29,75 +49,153 @@ public class SpaceshipController {
     private SpaceshipService service;
 
     @Autowired
-    private PagedResourcesAssembler<Spaceship> pagedResourcesAssembler;
+    private PagedResourcesAssembler<SpaceshipView> pagedResourcesAssembler;
 
     @Autowired
-    private MessageProducerService messageProducerService;
+    private SpaceshipImportService importService;
+
+    @Autowired
+    private SpaceshipExportService exportService;
+
+    @Value("${spaceships.multi-get.max-ids:500}")
+    private int maxIds = 500;
 
     @GetMapping
-    public ResponseEntity<PagedModel<EntityModel<Spaceship>>> getAllSpaceships(Pageable pageable) {
-        Page<Spaceship> spaceships = service.findAll(pageable);
-        PagedModel<EntityModel<Spaceship>> pagedModel = pagedResourcesAssembler.toModel(spaceships);
+    public ResponseEntity<PagedModel<EntityModel<SpaceshipView>>> getAllSpaceships(Pageable pageable, WebRequest request) {
+        Page<SpaceshipView> spaceships = service.findAll(pageable);
         if (pageable.getPageNumber() >= spaceships.getTotalPages() && spaceships.getTotalPages() > 0) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(PagedModel.empty());
         }
-        return ResponseEntity.ok(pagedModel);
+        String eTag = SpaceshipETags.of(spaceships.getContent(), spaceships.getTotalElements(),
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).body(pagedResourcesAssembler.toModel(spaceships));
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<SpaceshipView>> getSpaceshipsByCursor(@RequestParam String cursor, Pageable pageable, WebRequest request) {
+        CursorPage<SpaceshipView> page = service.findAll(cursor, pageable.getPageSize(), pageable.getSort());
+        String eTag = SpaceshipETags.of(page.content(), page.size(), page.nextCursor());
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).body(page);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getSpaceshipById(@PathVariable String id) {
+    public ResponseEntity<?> getSpaceshipById(@PathVariable String id, WebRequest request) {
         try {
             Long spaceshipId = validateAndConvertId(id);
             return service.findById(spaceshipId)
-                    .map(ResponseEntity::ok)
+                    .map(spaceship -> {
+                        String eTag = SpaceshipETags.of(spaceship.value());
+                        if (request.checkNotModified(eTag)) {
+                            return notModified(eTag);
+                        }
+                        return json(eTag, spaceship);
+                    })
                     .orElse(ResponseEntity.notFound().build());
         } catch (InvalidIdException e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
         }
     }
 
+    @GetMapping(params = {"ids", "!cursor"})
+    public ResponseEntity<?> getSpaceshipsByIds(@RequestParam List<String> ids, WebRequest request) {
+        if (ids.isEmpty()) {
+            return new ResponseEntity<>(new ErrorResponse("At least one ID must be provided."), HttpStatus.BAD_REQUEST);
+        }
+        if (ids.size() > maxIds) {
+            return new ResponseEntity<>(new ErrorResponse("At most " + maxIds + " IDs can be requested at once."), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            Set<Long> spaceshipIds = new LinkedHashSet<>();
+            for (String id : ids) {
+                spaceshipIds.add(validateAndConvertId(id.trim()));
+            }
+            List<PreSerialized<SpaceshipView>> spaceships = service.findAllById(spaceshipIds);
+            String eTag = SpaceshipETags.of(spaceships.stream().map(PreSerialized::value).toList(), spaceshipIds);
+            if (request.checkNotModified(eTag)) {
+                return notModified(eTag);
+            }
+            return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(jsonArray(spaceships));
+        } catch (InvalidIdException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping("/search")
-    public List<Spaceship> getSpaceshipsByName(@RequestParam String name) {
-        return service.findByName(name);
+    public ResponseEntity<byte[]> getSpaceshipsByName(@RequestParam String name, WebRequest request) {
+        PreSerialized<List<SpaceshipView>> spaceships = service.findByName(name);
+        String eTag = SpaceshipETags.of(spaceships.value(), name);
+        if (request.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+        return json(eTag, spaceships);
+    }
+
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<PagedModel<EntityModel<SpaceshipView>>> searchSpaceships(@RequestParam String q, Pageable pageable) {
+        return ResponseEntity.ok(pagedResourcesAssembler.toModel(service.search(q, pageable)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSpaceships(@RequestParam(defaultValue = "ndjson") String format) {
+        SpaceshipExportService.Format exportFormat;
+        try {
+            exportFormat = SpaceshipExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExportFormatException("Format must be ndjson or csv.");
+        }
+        MediaType mediaType = exportFormat == SpaceshipExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = output -> exportService.export(output, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("spaceships." + exportFormat.name().toLowerCase(Locale.ROOT))
+                        .build().toString())
+                .body(body);
     }
 
     @PostMapping
     public ResponseEntity<?> createSpaceship(@RequestBody @Valid Spaceship spaceship) {
         try {
             Spaceship savedSpaceship = service.save(spaceship);
-            messageProducerService.sendMessage("Created spaceship: " + savedSpaceship.getName());
             return new ResponseEntity<>(savedSpaceship, HttpStatus.CREATED);
         } catch (DuplicateSpaceshipException e) {
             return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
         }
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<List<BulkImportResult>> importSpaceships(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importSpaceships(body));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateSpaceship(@PathVariable String id, @RequestBody @Valid Spaceship spaceship) {
-        try {
-            Long spaceshipId = validateAndConvertId(id);
-            return service.findById(spaceshipId)
-                    .map(existing -> {
-                        spaceship.setId(spaceshipId);
-                        Spaceship updatedSpaceship = service.save(spaceship);
-                        messageProducerService.sendMessage("Updated spaceship: " + updatedSpaceship.getName());
-                        return ResponseEntity.ok(updatedSpaceship);
-                    })
-                    .orElse(ResponseEntity.notFound().build());
-        } catch (InvalidIdException e) {
-            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
-        } catch (DuplicateSpaceshipException e) {
-            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
+    public ResponseEntity<?> updateSpaceship(@PathVariable String id, @RequestBody @Valid Spaceship spaceship,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return update(id, SpaceshipPatch.of(spaceship), ifMatch);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchSpaceship(@PathVariable String id, @RequestBody SpaceshipPatch patch,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (patch.isEmpty()) {
+            return new ResponseEntity<>(new ErrorResponse("At least one field must be provided."), HttpStatus.BAD_REQUEST);
         }
+        return update(id, patch, ifMatch);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteSpaceship(@PathVariable String id) {
         try {
             Long spaceshipId = validateAndConvertId(id);
-            if (service.findById(spaceshipId).isPresent()) {
-                service.deleteById(spaceshipId);
-                messageProducerService.sendMessage("Deleted spaceship with ID: " + spaceshipId);
+            if (service.delete(spaceshipId)) {
                 return ResponseEntity.noContent().build();
             }
             return ResponseEntity.notFound().build();
@@ -106,6 +204,41 @@ public class SpaceshipController {
         }
     }
 
+    private ResponseEntity<?> update(String id, SpaceshipPatch patch, String ifMatch) {
+        try {
+            Long spaceshipId = validateAndConvertId(id);
+            return service.update(spaceshipId, patch, SpaceshipETags.expectedVersion(ifMatch, spaceshipId))
+                    .map(updatedSpaceship -> ResponseEntity.ok().eTag(SpaceshipETags.of(SpaceshipView.of(updatedSpaceship))).body(updatedSpaceship))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InvalidIdException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (DuplicateSpaceshipException e) {
+            return new ResponseEntity<>(new ErrorResponse(e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    private static ResponseEntity<byte[]> json(String eTag, PreSerialized<?> body) {
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(body.json());
+    }
+
+    // Joins the cached JSON of each spaceship instead of serializing the list again.
+    private static byte[] jsonArray(List<? extends PreSerialized<?>> elements) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(elements.get(i).json());
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
     private Long validateAndConvertId(String id) throws InvalidIdException {
         try {
             Long spaceshipId = Long.parseLong(id);
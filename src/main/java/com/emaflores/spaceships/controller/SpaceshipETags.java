@@ -0,0 +1,69 @@
+package com.emaflores.spaceships.controller;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+final class SpaceshipETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NO_MATCH = -1L;
+
+    private SpaceshipETags() {
+    }
+
+    static String of(SpaceshipView spaceship) {
+        return "\"" + spaceship.id() + "-" + spaceship.version() + "\"";
+    }
+
+    static String of(List<SpaceshipView> spaceships, Object... qualifiers) {
+        long hash = FNV_OFFSET;
+        for (SpaceshipView spaceship : spaceships) {
+            hash = mix(hash, spaceship.id() == null ? 0 : spaceship.id());
+            hash = mix(hash, spaceship.version());
+        }
+        for (Object qualifier : qualifiers) {
+            hash = mix(hash, String.valueOf(qualifier).getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"c-" + Long.toHexString(hash) + "\"";
+    }
+
+    // Version an If-Match header requires: null when any version matches, NO_MATCH when none of its tags can.
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+                } catch (NumberFormatException e) {
+                    // Not one of our tags, so it cannot match.
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    // The length goes first so that qualifiers cannot run into each other, e.g. ("ab", "c") and ("a", "bc").
+    private static long mix(long hash, byte[] bytes) {
+        hash = mix(hash, bytes.length);
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
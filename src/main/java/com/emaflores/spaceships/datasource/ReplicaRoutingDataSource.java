@@ -0,0 +1,147 @@
+package com.emaflores.spaceships.datasource;
+
+import com.emaflores.spaceships.config.DataSourceRoutingProperties.Strategy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final ReadYourWritesTracker tracker;
+    private final long retryMillis;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Strategy strategy,
+                                    ReadYourWritesTracker tracker, Duration replicaRetry, Clock clock) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.strategy = strategy;
+        this.tracker = tracker;
+        this.retryMillis = replicaRetry.toMillis();
+        this.clock = clock;
+    }
+
+    // Reads whose results outlive the request, such as cache fills, must not see a lagging replica.
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.set(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.downUntil.set(clock.millis() + retryMillis);
+                logger.warn("Replica unavailable, routing reads to the primary for {} ms: {}", retryMillis, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                tracker.recordWrite();
+            }
+            return null;
+        }
+        if (PRIMARY_ONLY.get() || tracker.hasRecentWrite()) {
+            return null;
+        }
+        return strategy == Strategy.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+    }
+
+    private Replica roundRobin() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUp(clock.millis())) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica leastConnections() {
+        Replica selected = null;
+        int fewest = Integer.MAX_VALUE;
+        for (Replica replica : replicas) {
+            int active = replica.activeConnections();
+            if (replica.isUp(clock.millis()) && active < fewest) {
+                selected = replica;
+                fewest = active;
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final AtomicLong downUntil = new AtomicLong();
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean isUp(long now) {
+            return downUntil.get() <= now;
+        }
+
+        private int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getActiveConnections();
+            }
+            return 0;
+        }
+    }
+}
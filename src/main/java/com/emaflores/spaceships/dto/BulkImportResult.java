@@ -0,0 +1,19 @@
+package com.emaflores.spaceships.dto;
+
+public record BulkImportResult(int index, Status status, Long id, String name, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    public static BulkImportResult created(int index, Long id, String name) {
+        return new BulkImportResult(index, Status.CREATED, id, name, null);
+    }
+
+    public static BulkImportResult rejected(int index, Status status, String name, String message) {
+        return new BulkImportResult(index, status, null, name, message);
+    }
+}
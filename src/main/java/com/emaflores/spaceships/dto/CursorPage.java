@@ -0,0 +1,6 @@
+package com.emaflores.spaceships.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+}
@@ -0,0 +1,6 @@
+package com.emaflores.spaceships.dto;
+
+import java.time.Instant;
+
+public record MessageLogView(Long id, String message, Instant timestamp) {
+}
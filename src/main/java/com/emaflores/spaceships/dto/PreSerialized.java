@@ -0,0 +1,18 @@
+package com.emaflores.spaceships.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+
+public record PreSerialized<T>(T value, byte[] json) implements Serializable {
+
+    public static <T> PreSerialized<T> of(T value, ObjectMapper objectMapper) {
+        try {
+            return new PreSerialized<>(value, objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.emaflores.spaceships.dto;
+
+import com.emaflores.spaceships.entity.Spaceship;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+public record SpaceshipChange(Operation operation, long id, long version, Set<Field> changed,
+                              String name, String type, String source) {
+
+    public static final String CONTENT_TYPE = "application/vnd.spaceships.change";
+
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    // Header (format, operation, two 10-byte varints, field mask) plus three fields of a 2-byte length and 3 UTF-8 bytes per char.
+    public static final int MAX_ENCODED_SIZE = 23 + 3 * (2 + 3 * MAX_FIELD_LENGTH);
+
+    private static final int FORMAT = 1;
+
+    public enum Operation {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public enum Field {
+        NAME,
+        TYPE,
+        SOURCE
+    }
+
+    public SpaceshipChange {
+        changed = Collections.unmodifiableSet(changed.isEmpty() ? EnumSet.noneOf(Field.class) : EnumSet.copyOf(changed));
+    }
+
+    public static SpaceshipChange created(Spaceship spaceship) {
+        return new SpaceshipChange(Operation.CREATED, spaceship.getId(), spaceship.getVersion(), EnumSet.allOf(Field.class),
+                spaceship.getName(), spaceship.getType(), spaceship.getSource());
+    }
+
+    public static SpaceshipChange updated(Spaceship spaceship, SpaceshipPatch patch) {
+        Set<Field> changed = EnumSet.noneOf(Field.class);
+        if (patch.name() != null) {
+            changed.add(Field.NAME);
+        }
+        if (patch.type() != null) {
+            changed.add(Field.TYPE);
+        }
+        if (patch.source() != null) {
+            changed.add(Field.SOURCE);
+        }
+        return new SpaceshipChange(Operation.UPDATED, spaceship.getId(), spaceship.getVersion(), changed,
+                patch.name(), patch.type(), patch.source());
+    }
+
+    public static SpaceshipChange deleted(long id) {
+        return new SpaceshipChange(Operation.DELETED, id, 0L, EnumSet.noneOf(Field.class), null, null, null);
+    }
+
+    // Folds a later change to the same spaceship into this one: updates overlay their fields, a delete wins.
+    public SpaceshipChange merge(SpaceshipChange next) {
+        if (next.operation != Operation.UPDATED || operation == Operation.DELETED) {
+            return next;
+        }
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        fields.addAll(changed);
+        fields.addAll(next.changed);
+        return new SpaceshipChange(operation, id, Math.max(version, next.version), fields,
+                next.changed.contains(Field.NAME) ? next.name : name,
+                next.changed.contains(Field.TYPE) ? next.type : type,
+                next.changed.contains(Field.SOURCE) ? next.source : source);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(FORMAT);
+        out.write(operation.ordinal());
+        writeVarLong(out, id);
+        writeVarLong(out, version);
+        int mask = 0;
+        for (Field field : changed) {
+            mask |= 1 << field.ordinal();
+        }
+        out.write(mask);
+        for (Field field : Field.values()) {
+            if (changed.contains(field)) {
+                writeString(out, value(field));
+            }
+        }
+        if (out.size() > MAX_ENCODED_SIZE) {
+            throw new IllegalArgumentException("Change event exceeds " + MAX_ENCODED_SIZE + " bytes");
+        }
+        return out.toByteArray();
+    }
+
+    public static SpaceshipChange decode(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int format = buffer.get();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Unsupported change format " + format);
+            }
+            Operation operation = Operation.values()[buffer.get()];
+            long id = readVarLong(buffer);
+            long version = readVarLong(buffer);
+            int mask = buffer.get();
+            Set<Field> changed = EnumSet.noneOf(Field.class);
+            String[] values = new String[Field.values().length];
+            for (Field field : Field.values()) {
+                if ((mask & (1 << field.ordinal())) != 0) {
+                    changed.add(field);
+                    values[field.ordinal()] = readString(buffer);
+                }
+            }
+            return new SpaceshipChange(operation, id, version, changed,
+                    values[Field.NAME.ordinal()], values[Field.TYPE.ordinal()], values[Field.SOURCE.ordinal()]);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed change event", e);
+        }
+    }
+
+    public String describe() {
+        StringBuilder description = new StringBuilder().append(operation).append(' ').append(id);
+        if (operation != Operation.DELETED) {
+            description.append(" v").append(version);
+        }
+        for (Field field : Field.values()) {
+            if (changed.contains(field)) {
+                description.append(' ').append(field.name().toLowerCase(Locale.ROOT)).append('=').append(value(field));
+            }
+        }
+        return description.toString();
+    }
+
+    private String value(Field field) {
+        return switch (field) {
+            case NAME -> name;
+            case TYPE -> type;
+            case SOURCE -> source;
+        };
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // Strings are length-prefixed with length + 1 so that 0 can encode null.
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed change event");
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,14 @@
+package com.emaflores.spaceships.dto;
+
+import com.emaflores.spaceships.entity.Spaceship;
+
+public record SpaceshipPatch(String name, String type, String source) {
+
+    public static SpaceshipPatch of(Spaceship spaceship) {
+        return new SpaceshipPatch(spaceship.getName(), spaceship.getType(), spaceship.getSource());
+    }
+
+    public boolean isEmpty() {
+        return name == null && type == null && source == null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.emaflores.spaceships.dto;
+
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRow;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.io.Serializable;
+
+@Relation(itemRelation = "spaceship", collectionRelation = "spaceshipList")
+public record SpaceshipView(Long id, String name, String type, String source, long version) implements Serializable {
+
+    public static SpaceshipView of(Spaceship spaceship) {
+        return new SpaceshipView(spaceship.getId(), spaceship.getName(), spaceship.getType(),
+                spaceship.getSource(), spaceship.getVersion());
+    }
+
+    public static SpaceshipView of(SpaceshipRow row) {
+        return new SpaceshipView(row.getId(), row.getName(), row.getType(), row.getSource(), row.getVersion());
+    }
+}
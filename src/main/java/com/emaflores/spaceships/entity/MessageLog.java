@@ -4,10 +4,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
+
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_message_log_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_message_log_bucket", columnList = "bucket")
+})
 @Getter
 @Setter
 public class MessageLog {
@@ -15,4 +23,6 @@ public class MessageLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String message;
+    private Instant timestamp;
+    private long bucket;
 }
@@ -0,0 +1,30 @@
+package com.emaflores.spaceships.entity;
+
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "event_outbox")
+@Getter
+@Setter
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String routingKey;
+    private Long aggregateId;
+    @Column(length = SpaceshipChange.MAX_ENCODED_SIZE)
+    private byte[] payload;
+    private Instant createdAt;
+    private int attempts;
+    private Instant nextAttemptAt;
+}
@@ -1,29 +1,51 @@
 package com.emaflores.spaceships.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_spaceship_name_key", columnNames = "name_key"))
 @Getter
 @Setter
 public class Spaceship {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spaceship_seq")
+    @SequenceGenerator(name = "spaceship_seq", sequenceName = "spaceship_seq", allocationSize = 50)
     @Schema(hidden = true)
     private Long id;
 
     @NotNull(message = "Name is required")
     private String name;
 
+    @Column(name = "name_key", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(name))")
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String nameKey;
+
     @NotNull(message = "Type is required")
     private String type;
 
     @NotNull(message = "Source is required")
     private String source;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private long version;
 }
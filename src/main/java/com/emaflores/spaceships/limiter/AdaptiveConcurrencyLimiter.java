@@ -0,0 +1,141 @@
+package com.emaflores.spaceships.limiter;
+
+import com.emaflores.spaceships.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// AIMD limit on in-flight requests: grows by one per limit's worth of fast responses and shrinks
+// multiplicatively, at most once per latency target, when responses are slow or fail.
+public class AdaptiveConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties.Limit settings;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Timer queueWait;
+
+    private double limit;
+    private int inflight;
+    private int waiting;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties.Limit settings, MeterRegistry meterRegistry) {
+        this(name, settings, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties.Limit settings, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.settings = settings;
+        this.nanoTime = nanoTime;
+        this.limit = Math.max(settings.min(), Math.min(settings.max(), settings.initial()));
+        this.lastDecrease = nanoTime.getAsLong() - settings.latencyTarget().toNanos();
+        Gauge.builder("spaceships.limiter.limit", this, AdaptiveConcurrencyLimiter::limit).tag("limiter", name).register(meterRegistry);
+        Gauge.builder("spaceships.limiter.inflight", this, AdaptiveConcurrencyLimiter::inflight).tag("limiter", name).register(meterRegistry);
+        Gauge.builder("spaceships.limiter.queue", this, AdaptiveConcurrencyLimiter::waiting).tag("limiter", name).register(meterRegistry);
+        accepted = Counter.builder("spaceships.limiter.requests").tag("limiter", name).tag("outcome", "accepted").register(meterRegistry);
+        rejected = Counter.builder("spaceships.limiter.requests").tag("limiter", name).tag("outcome", "rejected").register(meterRegistry);
+        queueWait = Timer.builder("spaceships.limiter.queue.wait").tag("limiter", name).register(meterRegistry);
+    }
+
+    public boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inflight < (int) limit) {
+                inflight++;
+                accepted.increment();
+                return true;
+            }
+            long maxWait = settings.maxWait().toNanos();
+            if (waiting >= settings.maxQueue() || maxWait <= 0) {
+                rejected.increment();
+                return false;
+            }
+            waiting++;
+            long start = nanoTime.getAsLong();
+            try {
+                long remaining = maxWait;
+                while (inflight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inflight++;
+                accepted.increment();
+                return true;
+            } finally {
+                waiting--;
+                queueWait.record(nanoTime.getAsLong() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            inflight--;
+            long now = nanoTime.getAsLong();
+            long latencyTarget = settings.latencyTarget().toNanos();
+            if (failed || latencyNanos > latencyTarget) {
+                if (now - lastDecrease >= latencyTarget) {
+                    limit = Math.max(settings.min(), limit * settings.backoffRatio());
+                    lastDecrease = now;
+                }
+            } else if (inflight * 2 >= (int) limit) {
+                limit = Math.min(settings.max(), limit + 1.0 / limit);
+            }
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Releases a permit whose latency says nothing about load, such as a long streaming export.
+    public void releaseIgnored() {
+        lock.lock();
+        try {
+            inflight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
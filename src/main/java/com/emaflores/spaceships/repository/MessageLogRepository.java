@@ -5,5 +5,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MessageLogRepository extends JpaRepository<MessageLog, Long> {
+public interface MessageLogRepository extends JpaRepository<MessageLog, Long>, MessageLogRepositoryCustom {
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.emaflores.spaceships.repository;
+
+import com.emaflores.spaceships.dto.MessageLogView;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MessageLogRepositoryCustom {
+    int insertAll(List<String> messages, Instant timestamp, long bucket);
+
+    List<MessageLogView> findRange(Instant start, long afterId, Instant end, int limit);
+
+    Long findOldestBucket();
+
+    int deleteBucket(long bucket, int limit);
+}
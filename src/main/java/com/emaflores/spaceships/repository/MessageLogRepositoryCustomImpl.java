@@ -0,0 +1,56 @@
+package com.emaflores.spaceships.repository;
+
+import com.emaflores.spaceships.dto.MessageLogView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageLogRepositoryCustomImpl implements MessageLogRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO message_log (message, timestamp, bucket) VALUES (?, ?, ?)";
+    // The range starts at the cursor's timestamp so the (timestamp, id) index seeks instead of skipping earlier rows.
+    private static final String RANGE_SQL = "SELECT id, message, timestamp FROM message_log "
+            + "WHERE timestamp >= ? AND timestamp < ? AND (timestamp > ? OR id > ?) "
+            + "ORDER BY timestamp, id FETCH FIRST ? ROWS ONLY";
+    private static final String OLDEST_BUCKET_SQL = "SELECT MIN(bucket) FROM message_log";
+    private static final String DELETE_BUCKET_SQL = "DELETE FROM message_log WHERE bucket = ? FETCH FIRST ? ROWS ONLY";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<String> messages, Instant timestamp, long bucket) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        Timestamp insertedAt = Timestamp.from(timestamp);
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (statement, message) -> {
+            statement.setString(1, message);
+            statement.setTimestamp(2, insertedAt);
+            statement.setLong(3, bucket);
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).map(count -> Math.max(count, 1)).sum();
+    }
+
+    @Override
+    public List<MessageLogView> findRange(Instant start, long afterId, Instant end, int limit) {
+        Timestamp from = Timestamp.from(start);
+        return jdbcTemplate.query(RANGE_SQL,
+                (rs, rowNum) -> new MessageLogView(rs.getLong("id"), rs.getString("message"), rs.getTimestamp("timestamp").toInstant()),
+                from, Timestamp.from(end), from, afterId, limit);
+    }
+
+    @Override
+    public Long findOldestBucket() {
+        return jdbcTemplate.queryForObject(OLDEST_BUCKET_SQL, Long.class);
+    }
+
+    @Override
+    public int deleteBucket(long bucket, int limit) {
+        return jdbcTemplate.update(DELETE_BUCKET_SQL, bucket, limit);
+    }
+}
@@ -1,19 +1,47 @@
 package com.emaflores.spaceships.repository;
 
+import com.emaflores.spaceships.dto.SpaceshipView;
 import com.emaflores.spaceships.entity.Spaceship;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface SpaceshipRepository extends JpaRepository<Spaceship, Long> {
+public interface SpaceshipRepository extends JpaRepository<Spaceship, Long>, SpaceshipRepositoryCustom {
     Page<Spaceship> findAll(Pageable pageable);
 
-    @Query("SELECT s FROM Spaceship s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Spaceship> findByNameContainingIgnoreCase(@Param("name") String name);
+    Page<SpaceshipView> findAllBy(Pageable pageable);
 
-}
+    // Keyset scrolling reads the position from the query tuple, which DTO projections do not expose.
+    Window<SpaceshipRow> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Optional<SpaceshipView> findViewById(Long id);
+
+    List<SpaceshipView> findViewsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new com.emaflores.spaceships.dto.SpaceshipView(s.id, s.name, s.type, s.source, s.version) "
+            + "FROM Spaceship s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :name, '%'))")
+    List<SpaceshipView> findByNameContainingIgnoreCase(@Param("name") String name);
 
+    @Query(value = "SELECT new com.emaflores.spaceships.dto.SpaceshipView(s.id, s.name, s.type, s.source, s.version) "
+            + "FROM Spaceship s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :text, '%')) "
+            + "OR LOWER(s.type) LIKE LOWER(CONCAT('%', :text, '%')) OR LOWER(s.source) LIKE LOWER(CONCAT('%', :text, '%'))",
+            countQuery = "SELECT COUNT(s) FROM Spaceship s WHERE LOWER(s.name) LIKE LOWER(CONCAT('%', :text, '%')) "
+                    + "OR LOWER(s.type) LIKE LOWER(CONCAT('%', :text, '%')) OR LOWER(s.source) LIKE LOWER(CONCAT('%', :text, '%'))")
+    Page<SpaceshipView> findByTextContainingIgnoreCase(@Param("text") String text, Pageable pageable);
+
+    List<Spaceship> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT s.nameKey FROM Spaceship s WHERE s.nameKey IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+}
@@ -0,0 +1,12 @@
+package com.emaflores.spaceships.repository;
+
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.entity.Spaceship;
+
+import java.util.Optional;
+
+public interface SpaceshipRepositoryCustom {
+    Optional<Spaceship> updateReturningPrevious(Long id, SpaceshipPatch patch, Long expectedVersion);
+
+    Optional<Spaceship> deleteReturningPrevious(Long id);
+}
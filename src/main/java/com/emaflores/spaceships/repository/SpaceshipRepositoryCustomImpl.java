@@ -0,0 +1,48 @@
+package com.emaflores.spaceships.repository;
+
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.entity.Spaceship;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class SpaceshipRepositoryCustomImpl implements SpaceshipRepositoryCustom {
+
+    private static final String UPDATE_SQL = "SELECT id, name, type, source, version FROM OLD TABLE ("
+            + "UPDATE spaceship SET name = COALESCE(?, name), type = COALESCE(?, type), source = COALESCE(?, source), "
+            + "version = version + 1 WHERE id = ? AND (CAST(? AS BIGINT) IS NULL OR version = ?))";
+    private static final String DELETE_SQL = "SELECT id, name, type, source, version FROM OLD TABLE ("
+            + "DELETE FROM spaceship WHERE id = ?)";
+
+    private static final RowMapper<Spaceship> ROW_MAPPER = (resultSet, rowNum) -> {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(resultSet.getLong("id"));
+        spaceship.setName(resultSet.getString("name"));
+        spaceship.setType(resultSet.getString("type"));
+        spaceship.setSource(resultSet.getString("source"));
+        spaceship.setVersion(resultSet.getLong("version"));
+        return spaceship;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // H2 does not undo a failed data-change delta statement in auto-commit mode, so these run in a transaction.
+    @Override
+    @Transactional
+    public Optional<Spaceship> updateReturningPrevious(Long id, SpaceshipPatch patch, Long expectedVersion) {
+        return jdbcTemplate.query(UPDATE_SQL, ROW_MAPPER, patch.name(), patch.type(), patch.source(), id,
+                        expectedVersion, expectedVersion)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Spaceship> deleteReturningPrevious(Long id) {
+        return jdbcTemplate.query(DELETE_SQL, ROW_MAPPER, id).stream().findFirst();
+    }
+}
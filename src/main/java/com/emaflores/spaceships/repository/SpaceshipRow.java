@@ -0,0 +1,13 @@
+package com.emaflores.spaceships.repository;
+
+public interface SpaceshipRow {
+    Long getId();
+
+    String getName();
+
+    String getType();
+
+    String getSource();
+
+    long getVersion();
+}
@@ -0,0 +1,191 @@
+package com.emaflores.spaceships.search;
+
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class SpaceshipNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceshipNameIndex.class);
+
+    private static final int GRAM_SIZE = 3;
+
+    @Autowired
+    private SpaceshipRepository repository;
+
+    @Value("${spaceships.search.name-index.enabled:true}")
+    private boolean enabled = true;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private final Object rebuildLock = new Object();
+
+    // Ids written while a rebuild is running; the rows it loads for them may predate those writes.
+    private Set<Long> touched;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            ready = false;
+            synchronized (this) {
+                names.clear();
+                postings.clear();
+                touched = new HashSet<>();
+            }
+            try {
+                long lastId = 0L;
+                List<Spaceship> batch;
+                do {
+                    batch = repository.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+                    for (Spaceship spaceship : batch) {
+                        load(spaceship.getId(), spaceship.getName());
+                        lastId = spaceship.getId();
+                    }
+                } while (!batch.isEmpty());
+            } finally {
+                synchronized (this) {
+                    touched = null;
+                }
+            }
+            ready = true;
+            logger.info("Spaceship name index loaded with {} entries", names.size());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void put(Long id, String name) {
+        if (id == null || name == null) {
+            return;
+        }
+        if (touched != null) {
+            touched.add(id);
+        }
+        index(id, name);
+    }
+
+    public synchronized void remove(Long id) {
+        if (touched != null) {
+            touched.add(id);
+        }
+        String previous = names.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+    }
+
+    private synchronized void load(Long id, String name) {
+        if (id != null && name != null && !touched.contains(id)) {
+            index(id, name);
+        }
+    }
+
+    private void index(Long id, String name) {
+        String normalized = normalize(name);
+        String previous = names.put(id, normalized);
+        if (normalized.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unlink(id, previous);
+        }
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public String nameOf(Long id) {
+        return names.get(id);
+    }
+
+    public List<Long> search(String query) {
+        String needle = normalize(query);
+        List<Long> matches = new ArrayList<>();
+        if (needle.length() < GRAM_SIZE) {
+            names.forEach((id, name) -> {
+                if (name.contains(needle)) {
+                    matches.add(id);
+                }
+            });
+        } else {
+            for (Long id : candidates(needle)) {
+                String name = names.get(id);
+                if (name != null && name.contains(needle)) {
+                    matches.add(id);
+                }
+            }
+        }
+        matches.sort(Comparator.naturalOrder());
+        return matches;
+    }
+
+    public static boolean matches(String name, String query) {
+        return name != null && normalize(name).contains(normalize(query));
+    }
+
+    private Set<Long> candidates(String needle) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(needle)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void unlink(Long id, String name) {
+        for (String gram : grams(name)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
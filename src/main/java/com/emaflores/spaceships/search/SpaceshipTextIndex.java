@@ -0,0 +1,257 @@
+package com.emaflores.spaceships.search;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class SpaceshipTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceshipTextIndex.class);
+
+    private static final String ID = "id";
+    private static final String ID_ORDER = "idOrder";
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of("name", 3f, "type", 1.5f, "source", 1f);
+    private static final Sort RELEVANCE = new Sort(SortField.FIELD_SCORE, new SortField(ID_ORDER, SortField.Type.LONG));
+    private static final int MAX_RESULTS = 10_000;
+
+    @Autowired
+    private SpaceshipRepository repository;
+
+    @Value("${spaceships.search.text-index.enabled:true}")
+    private boolean enabled = true;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final Object rebuildLock = new Object();
+
+    // Ids written while a rebuild is running; the rows it loads for them may predate those writes.
+    private Set<Long> touched;
+
+    private volatile boolean ready;
+
+    public SpaceshipTextIndex() {
+        try {
+            writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            ready = false;
+            try {
+                synchronized (this) {
+                    writer.deleteAll();
+                    touched = new HashSet<>();
+                }
+                changed.set(true);
+                long lastId = 0L;
+                List<Spaceship> batch;
+                do {
+                    batch = repository.findTop1000ByIdGreaterThanOrderByIdAsc(lastId);
+                    for (Spaceship spaceship : batch) {
+                        load(spaceship);
+                        lastId = spaceship.getId();
+                    }
+                } while (!batch.isEmpty());
+                refresh();
+                ready = true;
+                logger.info("Spaceship text index loaded with {} documents", writer.getDocStats().numDocs);
+            } catch (IOException e) {
+                logger.error("Could not build the spaceship text index, falling back to database search", e);
+            } finally {
+                synchronized (this) {
+                    touched = null;
+                }
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Spaceship spaceship) {
+        put(spaceship.getId(), spaceship.getName(), spaceship.getType(), spaceship.getSource());
+    }
+
+    public void put(SpaceshipView spaceship) {
+        put(spaceship.id(), spaceship.name(), spaceship.type(), spaceship.source());
+    }
+
+    private synchronized void load(Spaceship spaceship) {
+        if (spaceship.getId() != null && !touched.contains(spaceship.getId())) {
+            index(spaceship.getId(), spaceship.getName(), spaceship.getType(), spaceship.getSource());
+        }
+    }
+
+    private synchronized void put(Long id, String name, String type, String source) {
+        if (id == null) {
+            return;
+        }
+        if (touched != null) {
+            touched.add(id);
+        }
+        index(id, name, type, source);
+    }
+
+    private void index(Long id, String name, String type, String source) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID_ORDER, id));
+        addText(document, "name", name);
+        addText(document, "type", type);
+        addText(document, "source", source);
+        try {
+            writer.updateDocument(new Term(ID, id.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        changed.set(true);
+    }
+
+    public synchronized void remove(Long id) {
+        if (touched != null) {
+            touched.add(id);
+        }
+        try {
+            writer.deleteDocuments(new Term(ID, id.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        changed.set(true);
+    }
+
+    public Page<Long> search(String text, Pageable pageable) {
+        Set<String> terms = analyze(text);
+        if (terms.isEmpty() || pageable.getOffset() >= MAX_RESULTS) {
+            return Page.empty(pageable);
+        }
+        int offset = (int) pageable.getOffset();
+        int limit = Math.min(offset + pageable.getPageSize(), MAX_RESULTS);
+        try {
+            refresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Query query = query(terms);
+                int total = searcher.count(query);
+                ScoreDoc[] hits = searcher.search(query, limit, RELEVANCE, false).scoreDocs;
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(Math.max(hits.length - offset, 0));
+                for (int i = offset; i < hits.length; i++) {
+                    ids.add(Long.valueOf(storedFields.document(hits[i].doc).get(ID)));
+                }
+                return new PageImpl<>(ids, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+    }
+
+    // Writes only mark the index as changed; the next search reopens the reader once for all of them.
+    private void refresh() throws IOException {
+        if (changed.getAndSet(false)) {
+            searcherManager.maybeRefreshBlocking();
+        }
+    }
+
+    private static Query query(Set<String> terms) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            FIELD_BOOSTS.forEach((field, boost) -> {
+                anyField.add(new BoostQuery(new TermQuery(new Term(field, term)), boost), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost / 2), BooleanClause.Occur.SHOULD);
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private Set<String> analyze(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream("name", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.config.CustomPageableHandlerMethodArgumentResolver;
+import com.emaflores.spaceships.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public record KeysetCursor(Sort sort, KeysetScrollPosition position) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static KeysetCursor first(Sort sort) {
+        return new KeysetCursor(sort, ScrollPosition.keyset());
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            Map<String, Object> payload = MAPPER.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<>() {
+            });
+            List<Sort.Order> orders = new ArrayList<>();
+            for (Object order : (List<?>) payload.get("sort")) {
+                List<?> parts = (List<?>) order;
+                orders.add(new Sort.Order(Sort.Direction.fromString((String) parts.get(1)), allowed((String) parts.get(0))));
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            ((Map<?, ?>) payload.get("keys")).forEach((property, value) ->
+                    keys.put(allowed((String) property), "id".equals(property) ? ((Number) value).longValue() : value));
+            return new KeysetCursor(Sort.by(orders), ScrollPosition.forward(keys));
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidCursorException("Cursor is not valid.");
+        }
+    }
+
+    public String encode() {
+        List<List<String>> orders = new ArrayList<>();
+        sort.forEach(order -> orders.add(List.of(order.getProperty(), order.getDirection().name())));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sort", orders);
+        payload.put("keys", position.getKeys());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode cursor", e);
+        }
+    }
+
+    private static String allowed(String property) {
+        if (!CustomPageableHandlerMethodArgumentResolver.ALLOWED_SORT_PROPERTIES.contains(property)) {
+            throw new InvalidCursorException("Cursor is not valid.");
+        }
+        return property;
+    }
+}
@@ -1,13 +1,25 @@
 package com.emaflores.spaceships.service;
 
 import com.emaflores.spaceships.config.RabbitMQConfig;
-import com.emaflores.spaceships.entity.MessageLog;
-import com.emaflores.spaceships.repository.MessageLogRepository;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MessageConsumerService {
@@ -15,14 +27,64 @@ public class MessageConsumerService {
     private static final Logger logger = LoggerFactory.getLogger(MessageConsumerService.class);
 
     @Autowired
-    private MessageLogRepository messageLogRepository;
+    private MessageLogService messageLogService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer insertTimer;
+    private DistributionSummary batchSize;
+    private Counter consumedCounter;
+    private Timer lagTimer;
+
+    @PostConstruct
+    public void init() {
+        insertTimer = Timer.builder("spaceships.messages.batch.insert").register(meterRegistry);
+        batchSize = DistributionSummary.builder("spaceships.messages.batch.size").register(meterRegistry);
+        consumedCounter = Counter.builder("spaceships.messages.consumed").register(meterRegistry);
+        lagTimer = Timer.builder("spaceships.messages.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
 
-    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
-    public void receiveMessage(String message) {
-        logger.info("Received Message: {}", message);
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME, containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY)
+    @Transactional
+    public void receiveMessages(List<Message> messages) {
+        long start = System.nanoTime();
+        List<String> bodies = messages.stream()
+                .map(MessageConsumerService::describe)
+                .filter(Objects::nonNull)
+                .toList();
+        int inserted = messageLogService.append(bodies);
+
+        insertTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(messages.size());
+        consumedCounter.increment(inserted);
+        recordLag(messages);
+
+        logger.debug("Stored batch of {} messages", inserted);
+    }
+
+    // Messages published before change events were introduced are plain text and are stored as they are.
+    private static String describe(Message message) {
+        if (!SpaceshipChange.CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return new String(message.getBody(), StandardCharsets.UTF_8);
+        }
+        try {
+            return SpaceshipChange.decode(message.getBody()).describe();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Discarding undecodable change event: {}", e.getMessage());
+            return null;
+        }
+    }
 
-        MessageLog messageLog = new MessageLog();
-        messageLog.setMessage(message);
-        messageLogRepository.save(messageLog);
+    private void recordLag(List<Message> messages) {
+        long now = System.currentTimeMillis();
+        for (Message message : messages) {
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            if (timestamp != null) {
+                lagTimer.record(Math.max(0, now - timestamp.getTime()), TimeUnit.MILLISECONDS);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.MessageLogView;
+import com.emaflores.spaceships.exception.InvalidCursorException;
+import com.emaflores.spaceships.repository.MessageLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class MessageLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageLogService.class);
+
+    private static final Instant OPEN_END = Instant.parse("9999-12-31T00:00:00Z");
+
+    @Autowired
+    private MessageLogRepository messageLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor executor;
+
+    @Value("${spaceships.messaging.log.retention:30d}")
+    private Duration retention = Duration.ofDays(30);
+
+    @Value("${spaceships.messaging.log.purge-batch-size:10000}")
+    private int purgeBatchSize = 10000;
+
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    // Rows are grouped into daily buckets so that retention removes whole days through the bucket index.
+    public static long bucketOf(Instant timestamp) {
+        return Math.floorDiv(timestamp.getEpochSecond(), TimeUnit.DAYS.toSeconds(1));
+    }
+
+    public int append(List<String> messages) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        return messageLogRepository.insertAll(messages, now, bucketOf(now));
+    }
+
+    public CursorPage<MessageLogView> find(Instant from, Instant to, String cursor, int size) {
+        Instant start = from != null ? from : Instant.EPOCH;
+        long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            Position position = Position.decode(cursor);
+            if (!position.timestamp().isBefore(start)) {
+                start = position.timestamp();
+                afterId = position.id();
+            }
+        }
+        List<MessageLogView> content = messageLogRepository.findRange(start, afterId, to != null ? to : OPEN_END, size);
+        String next = null;
+        if (content.size() == size && size > 0) {
+            MessageLogView last = content.get(content.size() - 1);
+            next = new Position(last.timestamp(), last.id()).encode();
+        }
+        return new CursorPage<>(content, content.size(), next);
+    }
+
+    @Scheduled(fixedDelayString = "${spaceships.messaging.log.purge-interval-ms:3600000}",
+            initialDelayString = "${spaceships.messaging.log.purge-initial-delay-ms:60000}")
+    public void schedulePurge() {
+        if (purging.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    purgeExpired();
+                } finally {
+                    purging.set(false);
+                }
+            });
+        }
+    }
+
+    long purgeExpired() {
+        if (retention.isZero() || retention.isNegative()) {
+            return 0;
+        }
+        long firstKept = bucketOf(Instant.now().minus(retention));
+        Counter purged = Counter.builder("spaceships.messages.log.purged").register(meterRegistry);
+        Timer timer = Timer.builder("spaceships.messages.log.purge").register(meterRegistry);
+        long start = System.nanoTime();
+        long total = 0;
+        Long bucket = messageLogRepository.findOldestBucket();
+        while (bucket != null && bucket < firstKept) {
+            int deleted;
+            do {
+                deleted = messageLogRepository.deleteBucket(bucket, purgeBatchSize);
+                purged.increment(deleted);
+                total += deleted;
+            } while (deleted >= purgeBatchSize);
+            bucket = messageLogRepository.findOldestBucket();
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (total > 0) {
+            logger.info("Purged {} message log rows older than bucket {}", total, firstKept);
+        }
+        return total;
+    }
+
+    record Position(Instant timestamp, long id) {
+
+        static Position decode(String token) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+                return new Position(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new InvalidCursorException("Cursor is not valid.");
+            }
+        }
+
+        String encode() {
+            String token = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
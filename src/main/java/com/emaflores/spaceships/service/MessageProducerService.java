@@ -1,17 +1,56 @@
 package com.emaflores.spaceships.service;
 
 import com.emaflores.spaceships.config.RabbitMQConfig;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.entity.OutboxEvent;
+import com.emaflores.spaceships.repository.OutboxEventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 @Service
 public class MessageProducerService {
 
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Value("${spaceships.messaging.outbox.sweep-delay-ms:10000}")
+    private long sweepDelayMs = 10000;
+
+    @Transactional
+    public void sendChange(SpaceshipChange change) {
+        sendChanges(List.of(change));
+    }
+
+    @Transactional
+    public void sendChanges(List<SpaceshipChange> changes) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = changes.stream().map(change -> {
+            OutboxEvent event = new OutboxEvent();
+            event.setRoutingKey(RabbitMQConfig.ROUTING_KEY);
+            event.setAggregateId(change.id());
+            event.setPayload(change.encode());
+            event.setCreatedAt(now);
+            event.setNextAttemptAt(now.plus(Duration.ofMillis(sweepDelayMs)));
+            return event;
+        }).toList();
+        outboxRepository.saveAll(events);
 
-    public void sendMessage(String message) {
-        rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.ROUTING_KEY, message);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.forEach(outboxPublisher::enqueue);
+            }
+        });
     }
-}
\ No newline at end of file
+}
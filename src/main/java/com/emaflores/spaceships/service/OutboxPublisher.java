@@ -0,0 +1,167 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.config.RabbitMQConfig;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.entity.OutboxEvent;
+import com.emaflores.spaceships.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Service
+public class OutboxPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spaceships.messaging.outbox.buffer-capacity:10000}")
+    private int bufferCapacity = 10000;
+
+    @Value("${spaceships.messaging.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${spaceships.messaging.outbox.coalesce-window-ms:200}")
+    private long coalesceWindowMs = 200;
+
+    @Value("${spaceships.messaging.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs = 5000;
+
+    @Value("${spaceships.messaging.outbox.retry-initial-ms:1000}")
+    private long retryInitialMs = 1000;
+
+    @Value("${spaceships.messaging.outbox.retry-max-ms:60000}")
+    private long retryMaxMs = 60000;
+
+    private BlockingQueue<OutboxEvent> buffer;
+    private Timer publishTimer;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        publishTimer = Timer.builder("spaceships.messages.publish")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("spaceships.messages.published").register(meterRegistry);
+        failedCounter = Counter.builder("spaceships.messages.publish.failures").register(meterRegistry);
+        coalescedCounter = Counter.builder("spaceships.messages.coalesced").register(meterRegistry);
+        Gauge.builder("spaceships.messages.outbox.buffer", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean enqueue(OutboxEvent event) {
+        return buffer.offer(event);
+    }
+
+    // Events stay buffered for the coalescing window so that bursts of updates to one spaceship go out as a single event.
+    @Scheduled(fixedDelayString = "${spaceships.messaging.outbox.publish-interval-ms:100}")
+    public void publishBuffered() {
+        Instant cutoff = Instant.now().minusMillis(coalesceWindowMs);
+        List<OutboxEvent> due = new ArrayList<>();
+        for (OutboxEvent event = buffer.peek(); event != null && !event.getCreatedAt().isAfter(cutoff); event = buffer.peek()) {
+            due.add(buffer.poll());
+        }
+        publishCoalesced(due);
+    }
+
+    @Scheduled(fixedDelayString = "${spaceships.messaging.outbox.sweep-interval-ms:5000}")
+    public void publishDue() {
+        publishCoalesced(outboxRepository.findTop500ByNextAttemptAtLessThanEqualOrderByIdAsc(Instant.now()));
+    }
+
+    private void publishCoalesced(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> groups = coalesce(events);
+        coalescedCounter.increment(events.size() - groups.size());
+        for (int from = 0; from < groups.size(); from += batchSize) {
+            publish(groups.subList(from, Math.min(from + batchSize, groups.size())));
+        }
+    }
+
+    static List<List<OutboxEvent>> coalesce(List<OutboxEvent> events) {
+        Map<Object, List<OutboxEvent>> groups = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            Object key = event.getAggregateId() == null
+                    ? event
+                    : List.of(event.getRoutingKey(), event.getAggregateId());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    void publish(List<List<OutboxEvent>> batch) {
+        List<Long> ids = batch.stream().flatMap(List::stream).map(OutboxEvent::getId).toList();
+        try {
+            publishTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                for (List<OutboxEvent> group : batch) {
+                    OutboxEvent first = group.get(0);
+                    operations.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, first.getRoutingKey(), payload(group), message -> {
+                        message.getMessageProperties().setContentType(contentType(first));
+                        message.getMessageProperties().setTimestamp(Date.from(first.getCreatedAt()));
+                        return message;
+                    });
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            }));
+        } catch (AmqpException e) {
+            int attempts = batch.stream().flatMap(List::stream).mapToInt(OutboxEvent::getAttempts).max().orElse(0) + 1;
+            outboxRepository.scheduleRetry(ids, Instant.now().plus(backoff(attempts)));
+            failedCounter.increment(batch.size());
+            logger.warn("Failed to publish {} outbox events (attempt {}): {}", ids.size(), attempts, e.getMessage());
+            return;
+        }
+        outboxRepository.deleteAllByIdInBatch(ids);
+        publishedCounter.increment(batch.size());
+    }
+
+    static byte[] payload(List<OutboxEvent> group) {
+        if (group.size() == 1) {
+            return group.get(0).getPayload();
+        }
+        return group.stream()
+                .map(event -> SpaceshipChange.decode(event.getPayload()))
+                .reduce(SpaceshipChange::merge)
+                .orElseThrow()
+                .encode();
+    }
+
+    // Rows migrated from the text outbox have no aggregate id and carry their original message as UTF-8.
+    static String contentType(OutboxEvent event) {
+        return event.getAggregateId() == null ? MessageProperties.CONTENT_TYPE_TEXT_PLAIN : SpaceshipChange.CONTENT_TYPE;
+    }
+
+    Duration backoff(int attempts) {
+        long delay = retryInitialMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, retryMaxMs));
+    }
+}
@@ -0,0 +1,125 @@
+package com.emaflores.spaceships.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Service
+public class SpaceshipExportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String EXPORT_SQL = "SELECT id, name, type, source, version FROM spaceship ORDER BY id";
+    private static final String CSV_HEADER = "id,name,type,source,version";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spaceships.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Transactional(readOnly = true)
+    public long export(OutputStream output, Format format) throws IOException {
+        return switch (format) {
+            case NDJSON -> exportNdjson(output);
+            case CSV -> exportCsv(output);
+        };
+    }
+
+    private long exportNdjson(OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            long rows = stream(resultSet -> {
+                generator.writeStartObject();
+                generator.writeNumberField("id", resultSet.getLong("id"));
+                generator.writeStringField("name", resultSet.getString("name"));
+                generator.writeStringField("type", resultSet.getString("type"));
+                generator.writeStringField("source", resultSet.getString("source"));
+                generator.writeNumberField("version", resultSet.getLong("version"));
+                generator.writeEndObject();
+            });
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            return rows;
+        }
+    }
+
+    private long exportCsv(OutputStream output) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            return stream(resultSet -> {
+                writer.write(Long.toString(resultSet.getLong("id")));
+                writer.write(',');
+                writer.write(csv(resultSet.getString("name")));
+                writer.write(',');
+                writer.write(csv(resultSet.getString("type")));
+                writer.write(',');
+                writer.write(csv(resultSet.getString("source")));
+                writer.write(',');
+                writer.write(Long.toString(resultSet.getLong("version")));
+                writer.write('\n');
+            });
+        }
+    }
+
+    private long stream(RowWriter rowWriter) throws IOException {
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) resultSet -> {
+                try {
+                    rowWriter.write(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface RowWriter {
+        void write(ResultSet resultSet) throws SQLException, IOException;
+    }
+}
@@ -0,0 +1,173 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.cache.SpaceshipCacheInvalidator;
+import com.emaflores.spaceships.dto.BulkImportResult;
+import com.emaflores.spaceships.dto.BulkImportResult.Status;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class SpaceshipImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceshipImportService.class);
+
+    @Autowired
+    private SpaceshipRepository repository;
+
+    @Autowired
+    private SpaceshipNameIndex nameIndex;
+
+    @Autowired
+    private SpaceshipTextIndex textIndex;
+
+    @Autowired
+    private SpaceshipCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private MessageProducerService messageProducerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spaceships.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public List<BulkImportResult> importSpaceships(InputStream input) throws IOException {
+        List<BulkImportResult> results = new ArrayList<>();
+        Set<String> seenNames = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<Spaceship> rows = objectMapper.readerFor(Spaceship.class).readValues(input)) {
+            while (rows.hasNextValue()) {
+                Spaceship spaceship = rows.nextValue();
+                spaceship.setId(null);
+                Row row = new Row(index++, spaceship);
+                String problem = validate(spaceship);
+                if (problem != null) {
+                    results.add(BulkImportResult.rejected(row.index(), Status.INVALID, spaceship.getName(), problem));
+                } else if (!seenNames.add(row.key())) {
+                    results.add(BulkImportResult.rejected(row.index(), Status.DUPLICATE, spaceship.getName(), "Duplicated within the request."));
+                } else {
+                    chunk.add(row);
+                    if (chunk.size() >= chunkSize) {
+                        insertChunk(chunk, results);
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            results.add(BulkImportResult.rejected(index, Status.INVALID, null, "Malformed input: " + e.getOriginalMessage()));
+        } finally {
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, results);
+            }
+        }
+        results.sort(Comparator.comparingInt(BulkImportResult::index));
+        return results;
+    }
+
+    private void insertChunk(List<Row> chunk, List<BulkImportResult> results) {
+        Set<String> existing = new HashSet<>(repository.findExistingNames(chunk.stream().map(Row::key).collect(Collectors.toSet())));
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.key())) {
+                results.add(BulkImportResult.rejected(row.index(), Status.DUPLICATE, row.spaceship().getName(), "A spaceship with the same name already exists."));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            List<Spaceship> saved = transaction.execute(status -> {
+                List<Spaceship> entities = repository.saveAll(candidates.stream().map(Row::spaceship).toList());
+                repository.flush();
+                messageProducerService.sendChanges(entities.stream().map(SpaceshipChange::created).toList());
+                return entities;
+            });
+            for (int i = 0; i < candidates.size(); i++) {
+                created(candidates.get(i), saved.get(i), results);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Batch insert of {} spaceships failed, retrying row by row: {}", candidates.size(), e.getMostSpecificCause().getMessage());
+            for (Row row : candidates) {
+                row.spaceship().setId(null);
+                try {
+                    created(row, transaction.execute(status -> {
+                        Spaceship saved = repository.saveAndFlush(row.spaceship());
+                        messageProducerService.sendChange(SpaceshipChange.created(saved));
+                        return saved;
+                    }), results);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    if (SpaceshipService.isUniqueViolation(rowFailure)) {
+                        results.add(BulkImportResult.rejected(row.index(), Status.DUPLICATE, row.spaceship().getName(), "A spaceship with the same name already exists."));
+                    } else {
+                        results.add(BulkImportResult.rejected(row.index(), Status.FAILED, row.spaceship().getName(), rowFailure.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+        }
+    }
+
+    // Each created row is invalidated like a single create, so other nodes only drop what it affects.
+    private void created(Row row, Spaceship saved, List<BulkImportResult> results) {
+        nameIndex.put(saved.getId(), saved.getName());
+        textIndex.put(saved);
+        cacheInvalidator.saved(null, SpaceshipView.of(saved));
+        results.add(BulkImportResult.created(row.index(), saved.getId(), saved.getName()));
+    }
+
+    private String validate(Spaceship spaceship) {
+        Set<ConstraintViolation<Spaceship>> violations = validator.validate(spaceship);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private record Row(int index, Spaceship spaceship) {
+        String key() {
+            return spaceship.getName().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -1,58 +1,332 @@
 package com.emaflores.spaceships.service;
 
+import com.emaflores.spaceships.cache.SpaceshipCacheInvalidator;
+import com.emaflores.spaceships.cache.SpaceshipStore;
+import com.emaflores.spaceships.datasource.ReplicaRoutingDataSource;
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.dto.SpaceshipView;
 import com.emaflores.spaceships.entity.Spaceship;
 import com.emaflores.spaceships.exception.DuplicateSpaceshipException;
 import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class SpaceshipService {
+    private static final String UNIQUE_VIOLATION = "23505";
+
     @Autowired
     private SpaceshipRepository repository;
 
-    @Cacheable(value = "spaceships", key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()")
-    public Page<Spaceship> findAll(Pageable pageable) {
-        Page<Spaceship> spaceships = repository.findAll(pageable);
+    @Autowired
+    private SpaceshipNameIndex nameIndex;
+
+    @Autowired
+    private SpaceshipTextIndex textIndex;
+
+    @Autowired
+    private SpaceshipCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private SpaceshipStore store;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MessageProducerService messageProducerService;
+
+    @Value("${spaceships.multi-get.chunk-size:500}")
+    private int multiGetChunkSize = 500;
+
+    @Value("${spaceships.datasource.routing.read-your-writes:5s}")
+    private Duration replicaLag = Duration.ofSeconds(5);
+
+    @Cacheable(value = "spaceships", key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #pageable.sort.toString()", sync = true)
+    public Page<SpaceshipView> findAll(Pageable pageable) {
+        Page<SpaceshipView> spaceships = readForCache(status -> repository.findAllBy(pageable));
         if (spaceships.isEmpty()) {
             return new PageImpl<>(Collections.emptyList(), pageable, 0);
         }
         return spaceships;
     }
 
-    @Cacheable(value = "spaceship", key = "#id")
-    public Optional<Spaceship> findById(Long id) {
-        return repository.findById(id);
+    @Transactional(readOnly = true)
+    public CursorPage<SpaceshipView> findAll(String cursor, int size, Sort sort) {
+        KeysetCursor current = cursor == null || cursor.isBlank() ? KeysetCursor.first(sort) : KeysetCursor.decode(cursor);
+        Window<SpaceshipView> window = repository.findBy(current.position(), current.sort(), Limit.of(size))
+                .map(SpaceshipView::of);
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            next = new KeysetCursor(current.sort(), (KeysetScrollPosition) window.positionAt(window.size() - 1)).encode();
+        }
+        return new CursorPage<>(window.getContent(), window.size(), next);
+    }
+
+    @Cacheable(value = "spaceship", key = "#id", sync = true)
+    public Optional<PreSerialized<SpaceshipView>> findById(Long id) {
+        return store.get(id)
+                .or(() -> load(id))
+                .map(view -> PreSerialized.of(view, objectMapper));
+    }
+
+    private Optional<SpaceshipView> load(Long id) {
+        long invalidations = store.invalidations();
+        Optional<SpaceshipView> view = readForCache(status -> repository.findViewById(id));
+        view.ifPresent(spaceship -> store.put(spaceship, invalidations));
+        return view;
+    }
+
+    // Same lookup order as findById, but every miss is fetched in a few IN queries instead of one query per id.
+    public List<PreSerialized<SpaceshipView>> findAllById(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(SpaceshipCacheInvalidator.BY_ID_CACHE);
+        long generation = cacheInvalidator.generation();
+        Map<Long, PreSerialized<SpaceshipView>> found = new HashMap<>();
+        List<SpaceshipView> loaded = new ArrayList<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            Cache.ValueWrapper wrapper = cache == null ? null : cache.get(id);
+            if (wrapper != null) {
+                cached(wrapper).ifPresent(spaceship -> found.put(id, spaceship));
+            } else {
+                store.get(id).ifPresentOrElse(loaded::add, () -> misses.add(id));
+            }
+        }
+        if (!misses.isEmpty()) {
+            loaded.addAll(loadAll(misses));
+        }
+        boolean current = generation == cacheInvalidator.generation();
+        for (SpaceshipView view : loaded) {
+            PreSerialized<SpaceshipView> spaceship = PreSerialized.of(view, objectMapper);
+            found.put(view.id(), spaceship);
+            if (cache != null && current) {
+                cache.putIfAbsent(view.id(), spaceship);
+            }
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<PreSerialized<SpaceshipView>> cached(Cache.ValueWrapper wrapper) {
+        if (wrapper.get() instanceof PreSerialized<?> cached && cached.value() instanceof SpaceshipView) {
+            return Optional.of((PreSerialized<SpaceshipView>) cached);
+        }
+        return Optional.empty();
+    }
+
+    private List<SpaceshipView> loadAll(List<Long> ids) {
+        long invalidations = store.invalidations();
+        List<SpaceshipView> views = readForCache(status -> {
+            List<SpaceshipView> rows = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += multiGetChunkSize) {
+                rows.addAll(repository.findViewsByIdIn(ids.subList(from, Math.min(ids.size(), from + multiGetChunkSize))));
+            }
+            return rows;
+        });
+        views.forEach(view -> store.put(view, invalidations));
+        return views;
+    }
+
+    @Cacheable(value = "spaceshipsByName", key = "#name", sync = true)
+    public PreSerialized<List<SpaceshipView>> findByName(String name) {
+        return PreSerialized.of(readForCache(status -> searchByName(name)), objectMapper);
     }
 
-    @Cacheable(value = "spaceshipsByName", key = "#name")
-    public List<Spaceship> findByName(String name) {
-        return repository.findByNameContainingIgnoreCase(name);
+    // Cached results are served to every user until they are invalidated. A replica is used unless a write was
+    // invalidated within the replica lag window, and a replica read that raced an invalidation is repeated on the primary.
+    private <T> T readForCache(TransactionCallback<T> action) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        if (!cacheInvalidator.invalidatedWithin(replicaLag)) {
+            long generation = cacheInvalidator.generation();
+            T result = transaction.execute(action);
+            if (generation == cacheInvalidator.generation()) {
+                return result;
+            }
+        }
+        return ReplicaRoutingDataSource.onPrimary(() -> transaction.execute(action));
     }
 
-    @CacheEvict(value = {"spaceships", "spaceship", "spaceshipsByName"}, allEntries = true)
+    @Transactional(readOnly = true)
+    public Page<SpaceshipView> search(String text, Pageable pageable) {
+        if (!textIndex.isReady()) {
+            return repository.findByTextContainingIgnoreCase(text, pageable);
+        }
+        Page<Long> ids = textIndex.search(text, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, ids.getTotalElements());
+        }
+        Map<Long, SpaceshipView> views = repository.findViewsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(SpaceshipView::id, Function.identity()));
+        List<SpaceshipView> ranked = ids.getContent().stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ranked, pageable, ids.getTotalElements());
+    }
+
+    private List<SpaceshipView> searchByName(String name) {
+        if (!nameIndex.isReady()) {
+            return repository.findByNameContainingIgnoreCase(name);
+        }
+        List<Long> ids = nameIndex.search(name);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return repository.findViewsByIdIn(ids).stream()
+                .filter(s -> SpaceshipNameIndex.matches(s.name(), name))
+                .sorted(Comparator.comparing(SpaceshipView::id))
+                .toList();
+    }
+
+    // The outbox row is written in the same transaction as the change; indexes and caches follow once it commits.
+    @Transactional
     public Spaceship save(Spaceship spaceship) {
-        Optional<Spaceship> existingSpaceship = repository.findByNameContainingIgnoreCase(spaceship.getName()).stream()
-                .filter(s -> !s.getId().equals(spaceship.getId()))
-                .findFirst();
+        SpaceshipView previous = spaceship.getId() == null ? null : currentState(spaceship.getId());
+        Spaceship savedSpaceship;
+        try {
+            savedSpaceship = repository.saveAndFlush(spaceship);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateSpaceshipException("A spaceship with the same name already exists.");
+            }
+            throw e;
+        }
+        messageProducerService.sendChange(SpaceshipChange.created(savedSpaceship));
+        SpaceshipView saved = SpaceshipView.of(savedSpaceship);
+        afterCommit(() -> {
+            nameIndex.put(saved.id(), saved.name());
+            textIndex.put(savedSpaceship);
+            cacheInvalidator.saved(previous, saved);
+        });
+        return savedSpaceship;
+    }
+
+    // With an expected version the update only applies if the row still has it, so concurrent edits are not lost.
+    @Transactional
+    public Optional<Spaceship> update(Long id, SpaceshipPatch patch, Long expectedVersion) {
+        Optional<Spaceship> previous;
+        try {
+            previous = repository.updateReturningPrevious(id, patch, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new DuplicateSpaceshipException("A spaceship with the same name already exists.");
+            }
+            throw e;
+        }
+        if (previous.isEmpty() && expectedVersion != null && repository.existsById(id)) {
+            throw new ObjectOptimisticLockingFailureException(Spaceship.class, id);
+        }
+        return previous.map(before -> {
+            Spaceship updatedSpaceship = patched(before, patch);
+            messageProducerService.sendChange(SpaceshipChange.updated(updatedSpaceship, patch));
+            afterCommit(() -> {
+                nameIndex.put(updatedSpaceship.getId(), updatedSpaceship.getName());
+                textIndex.put(updatedSpaceship);
+                cacheInvalidator.saved(SpaceshipView.of(before), SpaceshipView.of(updatedSpaceship));
+            });
+            return updatedSpaceship;
+        });
+    }
 
-        if (existingSpaceship.isPresent()) {
-            throw new DuplicateSpaceshipException("A spaceship with the same name already exists.");
+    @Transactional
+    public boolean delete(Long id) {
+        Optional<Spaceship> previous = repository.deleteReturningPrevious(id);
+        previous.ifPresent(before -> {
+            messageProducerService.sendChange(SpaceshipChange.deleted(id));
+            afterCommit(() -> {
+                nameIndex.remove(id);
+                textIndex.remove(id);
+                cacheInvalidator.deleted(id, SpaceshipView.of(before));
+            });
+        });
+        return previous.isPresent();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
-        return repository.save(spaceship);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Spaceship patched(Spaceship before, SpaceshipPatch patch) {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(before.getId());
+        spaceship.setName(patch.name() != null ? patch.name() : before.getName());
+        spaceship.setType(patch.type() != null ? patch.type() : before.getType());
+        spaceship.setSource(patch.source() != null ? patch.source() : before.getSource());
+        spaceship.setVersion(before.getVersion() + 1);
+        return spaceship;
     }
 
-    @CacheEvict(value = {"spaceships", "spaceship", "spaceshipsByName"}, allEntries = true)
-    public void deleteById(Long id) {
-        repository.deleteById(id);
+    private SpaceshipView currentState(Long id) {
+        return cacheInvalidator.cached(id)
+                .or(() -> store.get(id))
+                .or(() -> repository.findViewById(id))
+                .orElse(null);
     }
 }
\ No newline at end of file
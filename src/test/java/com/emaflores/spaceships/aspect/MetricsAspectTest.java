@@ -0,0 +1,71 @@
+package com.emaflores.spaceships.aspect;
+
+import com.emaflores.spaceships.cache.SpaceshipCacheInvalidator;
+import com.emaflores.spaceships.cache.SpaceshipStore;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.service.SpaceshipService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MetricsAspect aspect;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aspect = new MetricsAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void testServiceAndRepositoryCallsAreTimed() {
+        SpaceshipRepository repository = mock(SpaceshipRepository.class);
+        when(repository.findViewById(1L)).thenReturn(Optional.empty());
+        SpaceshipService service = new SpaceshipService();
+        ReflectionTestUtils.setField(service, "repository", proxy(repository));
+        ReflectionTestUtils.setField(service, "store", new SpaceshipStore());
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "cacheInvalidator", mock(SpaceshipCacheInvalidator.class));
+
+        proxy(service).findById(1L);
+
+        assertEquals(1, timer("service", "SpaceshipService", "findById", "none").count());
+        assertEquals(1, timer("repository", "SpaceshipRepository", "findViewById", "none").count());
+    }
+
+    @Test
+    void testFailedCallsAreTaggedWithException() {
+        SpaceshipRepository repository = mock(SpaceshipRepository.class);
+        when(repository.findById(1L)).thenThrow(new IllegalStateException("down"));
+
+        assertThrows(IllegalStateException.class, () -> proxy(repository).findById(1L));
+
+        assertEquals(1, timer("repository", "SpaceshipRepository", "findById", "IllegalStateException").count());
+    }
+
+    private Timer timer(String layer, String className, String method, String exception) {
+        Timer timer = meterRegistry.find(MetricsAspect.METRIC_NAME)
+                .tags("layer", layer, "class", className, "method", method, "exception", exception)
+                .timer();
+        assertNotNull(timer);
+        return timer;
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,95 @@
+package com.emaflores.spaceships.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevalidatingCacheTest {
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        RevalidatingCache cache = new RevalidatingCache("spaceships", Caffeine.newBuilder().build(), true, null, null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("0-20-UNSORTED", () -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    release.await();
+                    return "page";
+                })));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("page", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvictedValueIsServedWhileOneRefreshRuns() {
+        RevalidatingCache cache = new RevalidatingCache("spaceships", Caffeine.newBuilder().build(), true,
+                Duration.ofMinutes(1), refreshes::add);
+        AtomicInteger loads = new AtomicInteger();
+        cache.put("0-20-UNSORTED", "old");
+
+        cache.clear();
+
+        assertEquals("old", cache.get("0-20-UNSORTED", () -> "new-" + loads.incrementAndGet()));
+        assertEquals("old", cache.get("0-20-UNSORTED", () -> "new-" + loads.incrementAndGet()));
+        assertNull(cache.get("0-20-UNSORTED"));
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+
+        assertEquals("new-1", cache.get("0-20-UNSORTED").get());
+        assertEquals("new-1", cache.get("0-20-UNSORTED", () -> "new-" + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidationDuringRefreshDropsItsResult() {
+        RevalidatingCache cache = new RevalidatingCache("spaceship", Caffeine.newBuilder().build(), true,
+                Duration.ofMinutes(1), refreshes::add);
+        cache.put(1L, "Enterprise");
+        cache.evict(1L);
+        assertEquals("Enterprise", cache.get(1L, () -> "Voyager"));
+
+        cache.evict(1L);
+        refreshes.get(0).run();
+
+        assertNull(cache.get(1L));
+        assertEquals("Enterprise", cache.get(1L, () -> "Defiant"));
+        refreshes.get(1).run();
+        assertEquals("Defiant", cache.get(1L).get());
+    }
+
+    @Test
+    void testMissWithoutStaleValueLoadsInline() {
+        RevalidatingCache cache = new RevalidatingCache("spaceship", Caffeine.newBuilder().build(), true,
+                Duration.ofMinutes(1), refreshes::add);
+
+        assertEquals("Enterprise", cache.get(1L, () -> "Enterprise"));
+        assertEquals("Enterprise", cache.get(1L).get());
+        assertTrue(refreshes.isEmpty());
+    }
+}
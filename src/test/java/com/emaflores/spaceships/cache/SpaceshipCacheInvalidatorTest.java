@@ -0,0 +1,313 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipView;
+import com.emaflores.spaceships.config.RabbitMQConfig;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpaceshipCacheInvalidatorTest {
+
+    private SpaceshipCacheInvalidator invalidator;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("spaceships", "spaceship", "spaceshipsByName");
+        rabbitTemplate = mock(RabbitTemplate.class);
+        invalidator = invalidator(cacheManager, rabbitTemplate);
+    }
+
+    @Test
+    void testCachedReturnsSpaceshipFromIdCache() {
+        SpaceshipView enterprise = spaceship(1L, "Enterprise");
+        cache("spaceship").put(1L, serialized(enterprise));
+
+        assertSame(enterprise, invalidator.cached(1L).orElseThrow());
+        assertTrue(invalidator.cached(2L).isEmpty());
+    }
+
+    @Test
+    void testSavedEvictsOnlyAffectedIdAndSearchEntries() {
+        SpaceshipView before = spaceship(1L, "Enterprise");
+        SpaceshipView after = spaceship(1L, "Voyager");
+        cache("spaceship").put(1L, serialized(before));
+        cache("spaceship").put(2L, serialized(spaceship(2L, "Defiant")));
+        cache("spaceshipsByName").put("prise", serialized(List.of(before)));
+        cache("spaceshipsByName").put("yag", serialized(List.of()));
+        cache("spaceshipsByName").put("fian", serialized(List.of()));
+
+        long generation = invalidator.generation();
+        assertFalse(invalidator.invalidatedWithin(Duration.ofMinutes(1)));
+
+        invalidator.saved(before, after);
+
+        assertEquals(generation + 1, invalidator.generation());
+        assertTrue(invalidator.invalidatedWithin(Duration.ofMinutes(1)));
+        assertNull(cache("spaceship").get(1L));
+        assertNotNull(cache("spaceship").get(2L));
+        assertNull(cache("spaceshipsByName").get("prise"));
+        assertNull(cache("spaceshipsByName").get("yag"));
+        assertNotNull(cache("spaceshipsByName").get("fian"));
+        assertEquals(2.0, invalidations("spaceshipsByName", "evicted"));
+        assertEquals(1.0, invalidations("spaceshipsByName", "retained"));
+        assertEquals(1.0, invalidations("spaceship", "evicted"));
+    }
+
+    @Test
+    void testCreateEvictsLaterPagesAndAdjustsEarlierTotals() {
+        Sort byName = Sort.by("name");
+        Page<SpaceshipView> first = new PageImpl<>(List.of(spaceship(1L, "Alpha"), spaceship(2L, "Bravo")), PageRequest.of(0, 2, byName), 4);
+        Page<SpaceshipView> second = new PageImpl<>(List.of(spaceship(3L, "Delta"), spaceship(4L, "Echo")), PageRequest.of(1, 2, byName), 4);
+        cache("spaceships").put("0-2-name: ASC", first);
+        cache("spaceships").put("1-2-name: ASC", second);
+
+        invalidator.saved(null, spaceship(5L, "Charlie"));
+
+        Page<?> retained = (Page<?>) cache("spaceships").get("0-2-name: ASC").get();
+        assertEquals(5, retained.getTotalElements());
+        assertEquals(first.getContent(), retained.getContent());
+        assertNull(cache("spaceships").get("1-2-name: ASC"));
+    }
+
+    @Test
+    void testUpdateEvictsOnlyPagesBetweenOldAndNewPosition() {
+        Sort byName = Sort.by("name");
+        Page<SpaceshipView> first = new PageImpl<>(List.of(spaceship(1L, "Alpha"), spaceship(2L, "Bravo")), PageRequest.of(0, 2, byName), 6);
+        Page<SpaceshipView> second = new PageImpl<>(List.of(spaceship(3L, "Delta"), spaceship(4L, "Echo")), PageRequest.of(1, 2, byName), 6);
+        Page<SpaceshipView> third = new PageImpl<>(List.of(spaceship(5L, "Golf"), spaceship(6L, "Hotel")), PageRequest.of(2, 2, byName), 6);
+        cache("spaceships").put("0", first);
+        cache("spaceships").put("1", second);
+        cache("spaceships").put("2", third);
+
+        invalidator.saved(spaceship(5L, "Golf"), spaceship(5L, "Foxtrot"));
+
+        assertNotNull(cache("spaceships").get("0"));
+        assertNotNull(cache("spaceships").get("1"));
+        assertNull(cache("spaceships").get("2"));
+    }
+
+    @Test
+    void testDeletedWithoutPreviousStateClearsSearchAndPages() {
+        cache("spaceships").put("0", new PageImpl<>(List.of(spaceship(1L, "Alpha"))));
+        cache("spaceshipsByName").put("x", serialized(List.of()));
+        cache("spaceship").put(1L, serialized(spaceship(1L, "Alpha")));
+
+        invalidator.deleted(1L, null);
+
+        assertNull(cache("spaceships").get("0"));
+        assertNull(cache("spaceshipsByName").get("x"));
+        assertNull(cache("spaceship").get(1L));
+    }
+
+    @Test
+    void testInvalidationsPropagateToOtherNodes() {
+        ConcurrentMapCache remoteTier = new ConcurrentMapCache("spaceship");
+        SimpleCacheManager remoteCacheManager = new SimpleCacheManager();
+        remoteCacheManager.setCaches(List.of(remoteTier));
+        remoteCacheManager.initializeCaches();
+        SpaceshipCacheManager otherCacheManager = new SpaceshipCacheManager(remoteCacheManager, Set.of("spaceship"));
+        otherCacheManager.setCacheNames(List.of("spaceships", "spaceship", "spaceshipsByName"));
+        SpaceshipCacheInvalidator other = invalidator(otherCacheManager, mock(RabbitTemplate.class));
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            invalidator.onInvalidation(message);
+            other.onInvalidation(message);
+            return null;
+        }).when(rabbitTemplate).send(eq(RabbitMQConfig.EXCHANGE_NAME), eq(RabbitMQConfig.CACHE_INVALIDATION_ROUTING_KEY), any(Message.class));
+        SpaceshipView before = spaceship(1L, "Enterprise");
+        cache("spaceship").put(1L, serialized(before));
+        otherCacheManager.getCache("spaceship").put(1L, serialized(before));
+        otherCacheManager.getCache("spaceshipsByName").put("prise", serialized(List.of(before)));
+        remoteTier.clear();
+
+        invalidator.saved(before, spaceship(1L, "Voyager"));
+        flush(invalidator);
+
+        assertNull(cache("spaceship").get(1L));
+        assertNull(otherCacheManager.getCache("spaceship").get(1L));
+        assertNull(otherCacheManager.getCache("spaceshipsByName").get("prise"));
+
+        otherCacheManager.getCache("spaceship").put(2L, serialized(spaceship(2L, "Defiant")));
+        invalidator.clearAll();
+        flush(invalidator);
+
+        assertNotNull(remoteTier.get(2L));
+        assertNull(((TwoLevelCache) otherCacheManager.getCache("spaceship")).getNativeCache().getIfPresent(2L));
+    }
+
+    @Test
+    void testRemoteInvalidationsUpdateSearchIndexes() {
+        SpaceshipCacheInvalidator other = invalidator(new ConcurrentMapCacheManager(), mock(RabbitTemplate.class));
+        SpaceshipNameIndex nameIndex = (SpaceshipNameIndex) ReflectionTestUtils.getField(other, "nameIndex");
+        SpaceshipTextIndex textIndex = (SpaceshipTextIndex) ReflectionTestUtils.getField(other, "textIndex");
+        SpaceshipView before = spaceship(1L, "Enterprise");
+        nameIndex.put(1L, "Enterprise");
+        textIndex.put(before);
+
+        other.apply(CacheInvalidation.saved(before, spaceship(1L, "Voyager")), true);
+
+        assertEquals(List.of(1L), nameIndex.search("voyager"));
+        assertTrue(nameIndex.search("enterprise").isEmpty());
+        assertEquals(List.of(1L), textIndex.search("voyager", PageRequest.of(0, 10)).getContent());
+        assertTrue(textIndex.search("enterprise", PageRequest.of(0, 10)).isEmpty());
+
+        other.apply(CacheInvalidation.deleted(1L, null), true);
+
+        assertTrue(nameIndex.search("voyager").isEmpty());
+        assertTrue(textIndex.search("voyager", PageRequest.of(0, 10)).isEmpty());
+
+        nameIndex.put(2L, "Defiant");
+        other.apply(CacheInvalidation.cleared(), true);
+
+        assertTrue(nameIndex.isReady());
+        assertTrue(nameIndex.search("defiant").isEmpty());
+    }
+
+    @Test
+    void testRemoteClearsShareOneBackgroundRebuild() {
+        SpaceshipCacheInvalidator other = invalidator(new ConcurrentMapCacheManager(), mock(RabbitTemplate.class));
+        List<Runnable> tasks = new ArrayList<>();
+        ReflectionTestUtils.setField(other, "executor", (Executor) tasks::add);
+        SpaceshipNameIndex nameIndex = (SpaceshipNameIndex) ReflectionTestUtils.getField(other, "nameIndex");
+
+        other.apply(CacheInvalidation.cleared(), true);
+        other.apply(CacheInvalidation.cleared(), true);
+
+        assertEquals(1, tasks.size());
+        assertFalse(nameIndex.isReady());
+
+        tasks.get(0).run();
+        other.apply(CacheInvalidation.cleared(), true);
+
+        assertTrue(nameIndex.isReady());
+        assertEquals(2, tasks.size());
+    }
+
+    @Test
+    void testRevalidatedCachesKeepEvictedEntriesAsStale() {
+        SpaceshipCacheManager revalidatingCacheManager = new SpaceshipCacheManager(null, Set.of(), Set.of("spaceships", "spaceshipsByName"),
+                Duration.ofMinutes(1), Runnable::run);
+        revalidatingCacheManager.setCacheNames(List.of("spaceships", "spaceship", "spaceshipsByName"));
+        SpaceshipCacheInvalidator revalidating = invalidator(revalidatingCacheManager, rabbitTemplate);
+        SpaceshipView before = spaceship(1L, "Enterprise");
+        Page<SpaceshipView> page = new PageImpl<>(List.of(before));
+        revalidatingCacheManager.getCache("spaceships").put("0", page);
+        revalidatingCacheManager.getCache("spaceshipsByName").put("prise", serialized(List.of(before)));
+
+        revalidating.saved(before, spaceship(1L, "Voyager"));
+
+        Cache pages = revalidatingCacheManager.getCache("spaceships");
+        assertNull(pages.get("0"));
+        assertSame(page, pages.get("0", () -> new PageImpl<>(List.of(spaceship(1L, "Voyager")))));
+        assertEquals("Voyager", ((SpaceshipView) ((Page<?>) pages.get("0").get()).getContent().get(0)).name());
+        assertNull(revalidatingCacheManager.getCache("spaceshipsByName").get("prise"));
+    }
+
+    @Test
+    void testBroadcastFailureKeepsLocalInvalidation() {
+        doThrow(new AmqpConnectException(new java.net.ConnectException("Connection refused")))
+                .doNothing()
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+        cache("spaceship").put(1L, serialized(spaceship(1L, "Enterprise")));
+
+        invalidator.deleted(1L, spaceship(1L, "Enterprise"));
+
+        assertNull(cache("spaceship").get(1L));
+        verifyNoInteractions(rabbitTemplate);
+
+        flush(invalidator);
+        flush(invalidator);
+
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    void testBufferOverflowIsBroadcastAsClear() throws Exception {
+        for (int i = 0; i <= 1000; i++) {
+            invalidator.deleted((long) i, null);
+        }
+
+        flush(invalidator);
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(anyString(), anyString(), sent.capture());
+        CacheInvalidation invalidation = new ObjectMapper().readValue(sent.getValue().getBody(), CacheInvalidation.class);
+        assertEquals(CacheInvalidation.Type.CLEARED, invalidation.type());
+    }
+
+    private static SpaceshipCacheInvalidator invalidator(CacheManager cacheManager, RabbitTemplate rabbitTemplate) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher();
+        ReflectionTestUtils.setField(publisher, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(publisher, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(publisher, "meterRegistry", meterRegistry);
+        publisher.init();
+        SpaceshipCacheInvalidator invalidator = new SpaceshipCacheInvalidator();
+        ReflectionTestUtils.setField(invalidator, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(invalidator, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(invalidator, "publisher", publisher);
+        ReflectionTestUtils.setField(invalidator, "store", new SpaceshipStore());
+        SpaceshipNameIndex nameIndex = new SpaceshipNameIndex();
+        ReflectionTestUtils.setField(nameIndex, "repository", mock(SpaceshipRepository.class));
+        ReflectionTestUtils.setField(invalidator, "nameIndex", nameIndex);
+        SpaceshipTextIndex textIndex = new SpaceshipTextIndex();
+        ReflectionTestUtils.setField(textIndex, "repository", mock(SpaceshipRepository.class));
+        ReflectionTestUtils.setField(invalidator, "textIndex", textIndex);
+        ReflectionTestUtils.setField(invalidator, "executor", (Executor) Runnable::run);
+        return invalidator;
+    }
+
+    private double invalidations(String cacheName, String outcome) {
+        MeterRegistry meterRegistry = (MeterRegistry) ReflectionTestUtils.getField(invalidator, "meterRegistry");
+        return meterRegistry.get("spaceships.cache.invalidations").tag("cache", cacheName).tag("outcome", outcome).counter().count();
+    }
+
+    private static void flush(SpaceshipCacheInvalidator invalidator) {
+        ((CacheInvalidationPublisher) ReflectionTestUtils.getField(invalidator, "publisher")).publishBuffered();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private SpaceshipView spaceship(Long id, String name) {
+        return new SpaceshipView(id, name, "Explorer", "Earth", 0L);
+    }
+
+    private static <T> PreSerialized<T> serialized(T value) {
+        return new PreSerialized<>(value, new byte[0]);
+    }
+}
@@ -0,0 +1,128 @@
+package com.emaflores.spaceships.cache;
+
+import com.emaflores.spaceships.dto.SpaceshipView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceshipStoreTest {
+
+    private SpaceshipStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new SpaceshipStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+    }
+
+    @Test
+    void testStoresAndReturnsViews() {
+        SpaceshipView enterprise = new SpaceshipView(1L, "Enterprise", "Starship", "Star Trek", 3L);
+        SpaceshipView unknown = new SpaceshipView(2L, "Nave sin datos", null, null, 0L);
+
+        store.put(enterprise, store.invalidations());
+        store.put(unknown, store.invalidations());
+
+        assertEquals(Optional.of(enterprise), store.get(1L));
+        assertEquals(Optional.of(unknown), store.get(2L));
+        assertTrue(store.get(3L).isEmpty());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testMatchesMapUnderRandomPutsAndRemovals() {
+        Map<Long, SpaceshipView> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                store.remove(id);
+                expected.remove(id);
+            } else {
+                SpaceshipView view = new SpaceshipView(id, "Ship " + i, "Type " + (i % 7), "Source " + (i % 3), i);
+                store.put(view, store.invalidations());
+                expected.put(id, view);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (long id = 1; id <= 5_000; id++) {
+            assertEquals(Optional.ofNullable(expected.get(id)), store.get(id));
+        }
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsDropped() {
+        long invalidations = store.invalidations();
+        store.remove(1L);
+
+        store.put(new SpaceshipView(1L, "Enterprise", "Starship", "Star Trek", 0L), invalidations);
+
+        assertTrue(store.get(1L).isEmpty());
+    }
+
+    @Test
+    void testClearAndMaximumSize() {
+        ReflectionTestUtils.setField(store, "maximumSize", 2);
+        for (long id = 1; id <= 3; id++) {
+            store.put(new SpaceshipView(id, "Ship " + id, "Starship", "Star Trek", 0L), store.invalidations());
+        }
+
+        assertEquals(2, store.size());
+        assertTrue(store.get(3L).isEmpty());
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertTrue(store.get(1L).isEmpty());
+    }
+
+    @Test
+    void testExpiredRowsAreMissesAndSwept() {
+        Instant loadedAt = Instant.parse("2026-01-01T00:00:00Z");
+        ReflectionTestUtils.setField(store, "clock", Clock.fixed(loadedAt, ZoneOffset.UTC));
+        store.put(new SpaceshipView(1L, "Enterprise", "Starship", "Star Trek", 0L), store.invalidations());
+        ReflectionTestUtils.setField(store, "clock", Clock.fixed(loadedAt.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+        store.put(new SpaceshipView(2L, "Voyager", "Starship", "Star Trek", 0L), store.invalidations());
+
+        ReflectionTestUtils.setField(store, "clock", Clock.fixed(loadedAt.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+
+        assertTrue(store.get(1L).isEmpty());
+        assertTrue(store.get(2L).isPresent());
+
+        store.evictExpired();
+
+        assertEquals(1, store.size());
+        assertTrue(store.get(2L).isPresent());
+    }
+
+    @Test
+    void testCompactFootprint() {
+        for (long id = 1; id <= 100_000; id++) {
+            store.put(new SpaceshipView(id, "Spaceship " + id, "Starship", "Star Trek", 0L), store.invalidations());
+        }
+
+        assertTrue(store.estimatedBytes() / store.size() < 100, "bytes per ship: " + store.estimatedBytes() / store.size());
+    }
+
+    @Test
+    void testDisabledStoreKeepsNothing() {
+        SpaceshipStore disabled = new SpaceshipStore();
+
+        disabled.put(new SpaceshipView(1L, "Enterprise", "Starship", "Star Trek", 0L), disabled.invalidations());
+
+        assertTrue(disabled.get(1L).isEmpty());
+        assertEquals(0, disabled.size());
+    }
+}
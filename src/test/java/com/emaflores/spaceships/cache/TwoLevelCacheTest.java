@@ -0,0 +1,80 @@
+package com.emaflores.spaceships.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheTest {
+
+    private ConcurrentMapCache remote;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        remote = new ConcurrentMapCache("spaceship");
+        cache = new TwoLevelCache("spaceship", Caffeine.newBuilder().build(), true, remote);
+    }
+
+    @Test
+    void testRemoteHitPopulatesNearCache() {
+        remote.put(1L, "Enterprise");
+
+        assertEquals("Enterprise", cache.get(1L).get());
+        remote.clear();
+        assertEquals("Enterprise", cache.get(1L).get());
+    }
+
+    @Test
+    void testPutAndEvictReachBothTiers() {
+        cache.put(1L, "Enterprise");
+
+        assertEquals("Enterprise", remote.get(1L).get());
+        assertTrue(cache.evictIfPresent(1L));
+        assertNull(remote.get(1L));
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testLocalEvictionKeepsRemoteTier() {
+        cache.put(1L, "Enterprise");
+        cache.put(2L, "Voyager");
+
+        cache.evictLocally(1L);
+        cache.clearLocally();
+
+        assertNull(cache.getNativeCache().getIfPresent(2L));
+        assertEquals("Voyager", remote.get(2L).get());
+        assertEquals("Enterprise", cache.get(1L).get());
+    }
+
+    @Test
+    void testLoaderRunsOnlyWhenBothTiersMiss() {
+        AtomicInteger loads = new AtomicInteger();
+        remote.put(1L, "Enterprise");
+
+        assertEquals("Enterprise", cache.get(1L, () -> "loaded-" + loads.incrementAndGet()));
+        assertEquals("loaded-1", cache.get(2L, () -> "loaded-" + loads.incrementAndGet()));
+        assertEquals("loaded-1", remote.get(2L).get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRemoteFailureFallsBackToNearCache() {
+        Cache failing = mock(Cache.class);
+        when(failing.get(any())).thenThrow(new IllegalStateException("Connection refused"));
+        doThrow(new IllegalStateException("Connection refused")).when(failing).put(any(), any());
+        TwoLevelCache degraded = new TwoLevelCache("spaceship", Caffeine.newBuilder().build(), true, failing);
+
+        degraded.put(1L, "Enterprise");
+
+        assertEquals("Enterprise", degraded.get(1L).get());
+        assertNull(degraded.get(2L));
+    }
+}
@@ -0,0 +1,46 @@
+package com.emaflores.spaceships.controller;
+
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.MessageLogView;
+import com.emaflores.spaceships.service.MessageLogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+class MessageLogControllerTest {
+
+    @InjectMocks
+    private MessageLogController controller;
+
+    @Mock
+    private MessageLogService messageLogService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetMessagesInRange() {
+        Instant from = Instant.parse("2025-10-18T00:00:00Z");
+        Instant to = Instant.parse("2025-10-19T00:00:00Z");
+        CursorPage<MessageLogView> page = new CursorPage<>(List.of(new MessageLogView(1L, "DELETED 7", from)), 1, "next");
+        when(messageLogService.find(from, to, "cursor", 50)).thenReturn(page);
+
+        ResponseEntity<CursorPage<MessageLogView>> result = controller.getMessages(from, to, "cursor", PageRequest.of(0, 50));
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(page, result.getBody());
+    }
+}
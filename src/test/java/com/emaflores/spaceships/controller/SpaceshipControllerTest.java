@@ -1,9 +1,14 @@
 package com.emaflores.spaceships.controller;
 
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.dto.SpaceshipView;
 import com.emaflores.spaceships.entity.Spaceship;
 import com.emaflores.spaceships.exception.DuplicateSpaceshipException;
+import com.emaflores.spaceships.exception.InvalidExportFormatException;
 import com.emaflores.spaceships.exception.InvalidIdException;
-import com.emaflores.spaceships.service.MessageProducerService;
+import com.emaflores.spaceships.service.SpaceshipExportService;
 import com.emaflores.spaceships.service.SpaceshipService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,21 +19,37 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class SpaceshipControllerTest {
 
+    private static final byte[] JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
     @InjectMocks
     private SpaceshipController controller;
 
@@ -36,10 +57,10 @@ class SpaceshipControllerTest {
     private SpaceshipService service;
 
     @Mock
-    private MessageProducerService messageProducerService;
+    private PagedResourcesAssembler<SpaceshipView> pagedResourcesAssembler;
 
     @Mock
-    private PagedResourcesAssembler<Spaceship> pagedResourcesAssembler;
+    private SpaceshipExportService exportService;
 
     @BeforeEach
     public void setUp() {
@@ -49,12 +70,11 @@ class SpaceshipControllerTest {
     @Test
     void testGetAllSpaceships() {
         Pageable pageable = PageRequest.of(0, 10);
-        Spaceship spaceship = new Spaceship();
-        spaceship.setName("Enterprise");
-        List<Spaceship> spaceshipList = Arrays.asList(spaceship);
-        Page<Spaceship> page = new PageImpl<>(spaceshipList);
+        SpaceshipView spaceship = view(1L, "Enterprise", 0L);
+        List<SpaceshipView> spaceshipList = Arrays.asList(spaceship);
+        Page<SpaceshipView> page = new PageImpl<>(spaceshipList);
 
-        PagedModel<EntityModel<Spaceship>> pagedModel = PagedModel.of(
+        PagedModel<EntityModel<SpaceshipView>> pagedModel = PagedModel.of(
                 Arrays.asList(EntityModel.of(spaceship)),
                 new PagedModel.PageMetadata(10, 0, spaceshipList.size())
         );
@@ -62,59 +82,181 @@ class SpaceshipControllerTest {
         when(service.findAll(pageable)).thenReturn(page);
         when(pagedResourcesAssembler.toModel(page)).thenReturn(pagedModel);
 
-        ResponseEntity<PagedModel<EntityModel<Spaceship>>> response = controller.getAllSpaceships(pageable);
+        ResponseEntity<PagedModel<EntityModel<SpaceshipView>>> response = controller.getAllSpaceships(pageable, webRequest(null));
 
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().getMetadata().getTotalElements());
-        assertEquals("Enterprise", response.getBody().getContent().iterator().next().getContent().getName());
+        assertEquals("Enterprise", response.getBody().getContent().iterator().next().getContent().name());
+    }
+
+    @Test
+    void testGetSpaceshipsByCursor() {
+        Pageable pageable = PageRequest.of(0, 5, Sort.by("name"));
+        CursorPage<SpaceshipView> page = new CursorPage<>(Arrays.asList(view(1L, "Enterprise", 0L)), 1, "next");
+
+        when(service.findAll("", 5, Sort.by("name"))).thenReturn(page);
+
+        ResponseEntity<CursorPage<SpaceshipView>> response = controller.getSpaceshipsByCursor("", pageable, webRequest(null));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getBody().nextCursor());
+        assertEquals("Enterprise", response.getBody().content().get(0).name());
     }
 
     @Test
     void testGetSpaceshipById() throws InvalidIdException {
-        Spaceship spaceship = new Spaceship();
-        spaceship.setId(1L);
-        spaceship.setName("Enterprise");
+        PreSerialized<SpaceshipView> spaceship = new PreSerialized<>(view(1L, "Enterprise", 0L), JSON);
 
         when(service.findById(1L)).thenReturn(Optional.of(spaceship));
 
-        ResponseEntity<?> result = controller.getSpaceshipById("1");
+        ResponseEntity<?> result = controller.getSpaceshipById("1", webRequest(null));
 
         assertNotNull(result);
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals("Enterprise", ((Spaceship) result.getBody()).getName());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertSame(JSON, result.getBody());
     }
 
     @Test
     void testGetSpaceshipByIdInvalid() {
-        ResponseEntity<?> result = controller.getSpaceshipById("abc");
+        ResponseEntity<?> result = controller.getSpaceshipById("abc", webRequest(null));
 
         assertNotNull(result);
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
     }
 
+    @Test
+    void testGetSpaceshipsByIds() {
+        PreSerialized<SpaceshipView> enterprise = new PreSerialized<>(view(1L, "Enterprise", 0L), "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        PreSerialized<SpaceshipView> voyager = new PreSerialized<>(view(3L, "Voyager", 0L), "{\"id\":3}".getBytes(StandardCharsets.UTF_8));
+
+        when(service.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(enterprise, voyager));
+
+        ResponseEntity<?> result = controller.getSpaceshipsByIds(List.of("1", " 2", "3", "1"), webRequest(null));
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertEquals("[{\"id\":1},{\"id\":3}]", new String((byte[]) result.getBody(), StandardCharsets.UTF_8));
+        assertNotNull(result.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetSpaceshipsByIdsRejectsInvalidRequests() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getSpaceshipsByIds(List.of("1", "abc"), webRequest(null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getSpaceshipsByIds(List.of(), webRequest(null)).getStatusCode());
+        List<String> tooMany = LongStream.rangeClosed(1, 501).mapToObj(String::valueOf).toList();
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getSpaceshipsByIds(tooMany, webRequest(null)).getStatusCode());
+        verify(service, never()).findAllById(any());
+    }
+
     @Test
     void testGetSpaceshipsByName() {
-        Spaceship spaceship = new Spaceship();
-        spaceship.setName("Enterprise");
-        List<Spaceship> spaceshipList = Arrays.asList(spaceship);
+        PreSerialized<List<SpaceshipView>> spaceships = new PreSerialized<>(Arrays.asList(view(1L, "Enterprise", 0L)), JSON);
 
-        when(service.findByName("Enterprise")).thenReturn(spaceshipList);
+        when(service.findByName("Enterprise")).thenReturn(spaceships);
 
-        List<Spaceship> result = controller.getSpaceshipsByName("Enterprise");
+        ResponseEntity<byte[]> result = controller.getSpaceshipsByName("Enterprise", webRequest(null));
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Enterprise", result.get(0).getName());
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+        assertSame(JSON, result.getBody());
+        assertNotNull(result.getHeaders().getETag());
+    }
+
+    @Test
+    void testSearchSpaceships() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<SpaceshipView> page = new PageImpl<>(Arrays.asList(view(1L, "Enterprise", 0L)), pageable, 1);
+        PagedModel<EntityModel<SpaceshipView>> pagedModel = PagedModel.of(List.of(EntityModel.of(view(1L, "Enterprise", 0L))),
+                new PagedModel.PageMetadata(20, 0, 1));
+
+        when(service.search("star trek", pageable)).thenReturn(page);
+        when(pagedResourcesAssembler.toModel(page)).thenReturn(pagedModel);
+
+        ResponseEntity<PagedModel<EntityModel<SpaceshipView>>> result = controller.searchSpaceships("star trek", pageable);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertSame(pagedModel, result.getBody());
+    }
+
+    @Test
+    void testGetSpaceshipByIdReturnsETag() throws InvalidIdException {
+        when(service.findById(1L)).thenReturn(Optional.of(new PreSerialized<>(view(1L, "Enterprise", 3L), JSON)));
+
+        ResponseEntity<?> result = controller.getSpaceshipById("1", webRequest(null));
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"1-3\"", result.getHeaders().getETag());
+    }
+
+    @Test
+    void testCollectionETagsDistinguishQualifiersWithEqualHashCodes() {
+        List<SpaceshipView> content = List.of(view(1L, "Enterprise", 3L));
+
+        assertNotEquals(SpaceshipETags.of(content, "Aa"), SpaceshipETags.of(content, "BB"));
+        assertNotEquals(SpaceshipETags.of(content, "ab", "c"), SpaceshipETags.of(content, "a", "bc"));
+        assertEquals(SpaceshipETags.of(content, "Aa"), SpaceshipETags.of(content, "Aa"));
+    }
+
+    @Test
+    void testGetSpaceshipByIdNotModified() throws InvalidIdException {
+        when(service.findById(1L)).thenReturn(Optional.of(new PreSerialized<>(view(1L, "Enterprise", 3L), JSON)));
+
+        ResponseEntity<?> result = controller.getSpaceshipById("1", webRequest("\"1-3\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertNull(result.getBody());
+    }
+
+    @Test
+    void testGetAllSpaceshipsNotModifiedSkipsAssembler() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<SpaceshipView> page = new PageImpl<>(List.of(view(1L, "Enterprise", 0L)), pageable, 1);
+
+        when(service.findAll(pageable)).thenReturn(page);
+        when(pagedResourcesAssembler.toModel(page)).thenReturn(PagedModel.empty());
+
+        String eTag = controller.getAllSpaceships(pageable, webRequest(null)).getHeaders().getETag();
+        ResponseEntity<PagedModel<EntityModel<SpaceshipView>>> response = controller.getAllSpaceships(pageable, webRequest(eTag));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(pagedResourcesAssembler, times(1)).toModel(page);
+
+        when(service.findAll(pageable)).thenReturn(new PageImpl<>(List.of(view(1L, "Enterprise", 1L)), pageable, 1));
+        response = controller.getAllSpaceships(pageable, webRequest(eTag));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(eTag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void testExportSpaceshipsCsv() throws Exception {
+        ResponseEntity<StreamingResponseBody> result = controller.exportSpaceships("csv");
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", result.getHeaders().getContentType().toString());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        result.getBody().writeTo(output);
+        verify(exportService).export(output, SpaceshipExportService.Format.CSV);
+    }
+
+    @Test
+    void testExportSpaceshipsInvalidFormat() {
+        assertThrows(InvalidExportFormatException.class, () -> controller.exportSpaceships("xml"));
+        verifyNoInteractions(exportService);
     }
 
     @Test
     void testCreateSpaceship() {
         Spaceship spaceship = new Spaceship();
         spaceship.setName("Enterprise");
+        Spaceship saved = new Spaceship();
+        saved.setId(1L);
+        saved.setName("Enterprise");
 
-        when(service.save(spaceship)).thenReturn(spaceship);
+        when(service.save(spaceship)).thenReturn(saved);
 
         ResponseEntity<?> result = controller.createSpaceship(spaceship);
 
@@ -142,19 +284,91 @@ class SpaceshipControllerTest {
         spaceship.setId(1L);
         spaceship.setName("Enterprise");
 
-        when(service.findById(1L)).thenReturn(Optional.of(spaceship));
-        when(service.save(spaceship)).thenReturn(spaceship);
+        when(service.update(1L, SpaceshipPatch.of(spaceship), null)).thenReturn(Optional.of(spaceship));
 
-        ResponseEntity<?> result = controller.updateSpaceship("1", spaceship);
+        ResponseEntity<?> result = controller.updateSpaceship("1", spaceship, null);
 
         assertNotNull(result);
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("Enterprise", ((Spaceship) result.getBody()).getName());
+        verify(service, never()).findById(anyLong());
+    }
+
+    @Test
+    void testUpdateSpaceshipNotFound() {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setName("Enterprise");
+
+        when(service.update(1L, SpaceshipPatch.of(spaceship), null)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> result = controller.updateSpaceship("1", spaceship, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+    }
+
+    @Test
+    void testPatchSpaceship() {
+        SpaceshipPatch patch = new SpaceshipPatch(null, "Cruiser", null);
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(1L);
+        spaceship.setName("Enterprise");
+        spaceship.setType("Cruiser");
+
+        when(service.update(1L, patch, null)).thenReturn(Optional.of(spaceship));
+
+        ResponseEntity<?> result = controller.patchSpaceship("1", patch, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("Cruiser", ((Spaceship) result.getBody()).getType());
+    }
+
+    @Test
+    void testPatchSpaceshipWithIfMatch() {
+        SpaceshipPatch patch = new SpaceshipPatch(null, "Cruiser", null);
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(1L);
+        spaceship.setVersion(3L);
+
+        when(service.update(1L, patch, 2L)).thenReturn(Optional.of(spaceship));
+
+        ResponseEntity<?> result = controller.patchSpaceship("1", patch, "\"1-2\"");
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"1-3\"", result.getHeaders().getETag());
+    }
+
+    @Test
+    void testPatchSpaceshipWithForeignIfMatchNeverMatches() {
+        SpaceshipPatch patch = new SpaceshipPatch(null, "Cruiser", null);
+
+        when(service.update(1L, patch, -1L)).thenThrow(new ObjectOptimisticLockingFailureException(Spaceship.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> controller.patchSpaceship("1", patch, "\"2-2\", W/\"1-2\""));
+        verify(service).update(1L, patch, -1L);
+    }
+
+    @Test
+    void testPatchSpaceshipEmpty() {
+        ResponseEntity<?> result = controller.patchSpaceship("1", new SpaceshipPatch(null, null, null), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void testPatchSpaceshipDuplicate() {
+        SpaceshipPatch patch = new SpaceshipPatch("Voyager", null, null);
+
+        when(service.update(1L, patch, null)).thenThrow(new DuplicateSpaceshipException("A spaceship with the same name already exists."));
+
+        ResponseEntity<?> result = controller.patchSpaceship("1", patch, null);
+
+        assertEquals(HttpStatus.CONFLICT, result.getStatusCode());
     }
 
     @Test
     void testUpdateSpaceshipInvalidId() {
-        ResponseEntity<?> result = controller.updateSpaceship("abc", new Spaceship());
+        ResponseEntity<?> result = controller.updateSpaceship("abc", new Spaceship(), null);
 
         assertNotNull(result);
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
@@ -162,16 +376,13 @@ class SpaceshipControllerTest {
 
     @Test
     void testDeleteSpaceship() throws InvalidIdException {
-        Spaceship spaceship = new Spaceship();
-        spaceship.setId(1L);
-
-        when(service.findById(1L)).thenReturn(Optional.of(spaceship));
-        doNothing().when(service).deleteById(1L);
+        when(service.delete(1L)).thenReturn(true);
 
         ResponseEntity<?> result = controller.deleteSpaceship("1");
 
         assertNotNull(result);
         assertEquals(HttpStatus.NO_CONTENT, result.getStatusCode());
+        verify(service, never()).findById(anyLong());
     }
 
     @Test
@@ -184,11 +395,23 @@ class SpaceshipControllerTest {
 
     @Test
     void testDeleteSpaceshipNotFound() throws InvalidIdException {
-        when(service.findById(1L)).thenReturn(Optional.empty());
+        when(service.delete(1L)).thenReturn(false);
 
         ResponseEntity<?> result = controller.deleteSpaceship("1");
 
         assertNotNull(result);
         assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
     }
+
+    private static SpaceshipView view(Long id, String name, long version) {
+        return new SpaceshipView(id, name, "Explorer", "Star Trek", version);
+    }
+
+    private static WebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/spaceships");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
\ No newline at end of file
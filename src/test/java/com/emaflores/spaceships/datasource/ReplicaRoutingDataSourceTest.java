@@ -0,0 +1,141 @@
+package com.emaflores.spaceships.datasource;
+
+import com.emaflores.spaceships.config.DataSourceRoutingProperties.Strategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(database("replica")), Strategy.ROUND_ROBIN);
+
+        assertEquals("replica", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        assertEquals("primary", readWrite(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        assertEquals("primary", node(jdbcTemplate));
+    }
+
+    @Test
+    void testRecentWriterReadsFromPrimary() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(database("replica")), Strategy.ROUND_ROBIN);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password", "ROLE_USER"));
+
+        readWrite(jdbcTemplate).execute(status -> node(jdbcTemplate));
+
+        assertEquals("primary", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin", "adminpassword", "ROLE_ADMIN"));
+        assertEquals("replica", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+    }
+
+    @Test
+    void testRecentWriteOnlyPinsTheWritingClient() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(database("replica")), Strategy.ROUND_ROBIN);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password", "ROLE_USER"));
+
+        asClient("10.0.0.1");
+        readWrite(jdbcTemplate).execute(status -> node(jdbcTemplate));
+
+        assertEquals("primary", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        asClient("10.0.0.2");
+        assertEquals("replica", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+    }
+
+    @Test
+    void testOnPrimaryOverridesReadOnlyRouting() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(database("replica")), Strategy.ROUND_ROBIN);
+
+        assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate))));
+        assertEquals("replica", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+    }
+
+    @Test
+    void testRoundRobinAcrossReplicas() {
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(database("replica-0"), database("replica-1")),
+                Strategy.ROUND_ROBIN);
+
+        assertEquals("replica-0", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        assertEquals("replica-1", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        assertEquals("replica-0", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+    }
+
+    @Test
+    void testUnavailableReplicaFallsBackToPrimary() throws SQLException {
+        DataSource unavailable = mock(DataSource.class);
+        when(unavailable.getConnection()).thenThrow(new SQLException("Connection refused"));
+        JdbcTemplate jdbcTemplate = jdbcTemplate(database("primary"), List.of(unavailable, database("replica")),
+                Strategy.LEAST_CONNECTIONS);
+
+        assertEquals("primary", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+        assertEquals("replica", readOnly(jdbcTemplate).execute(status -> node(jdbcTemplate)));
+    }
+
+    private JdbcTemplate jdbcTemplate(DataSource primary, List<DataSource> replicas, Strategy strategy) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, strategy,
+                new ReadYourWritesTracker(Duration.ofMinutes(1)), Duration.ofMinutes(1), Clock.systemUTC());
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+    }
+
+    private static TransactionTemplate readOnly(JdbcTemplate jdbcTemplate) {
+        TransactionTemplate template = readWrite(jdbcTemplate);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static TransactionTemplate readWrite(JdbcTemplate jdbcTemplate) {
+        return new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    private static void asClient(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static String node(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        databases.add(database);
+        return database;
+    }
+}
@@ -0,0 +1,83 @@
+package com.emaflores.spaceships.dto;
+
+import com.emaflores.spaceships.dto.SpaceshipChange.Field;
+import com.emaflores.spaceships.dto.SpaceshipChange.Operation;
+import com.emaflores.spaceships.entity.Spaceship;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceshipChangeTest {
+
+    @Test
+    void testEncodeDecodeRoundtrip() {
+        SpaceshipChange created = SpaceshipChange.created(spaceship(300L, "Nave Estelar Ñandú", "Starship", 0L));
+        SpaceshipChange updated = new SpaceshipChange(Operation.UPDATED, 1L << 40, 5L, Set.of(Field.TYPE), null, null, null);
+        SpaceshipChange deleted = SpaceshipChange.deleted(9L);
+
+        assertEquals(created, SpaceshipChange.decode(created.encode()));
+        assertEquals(updated, SpaceshipChange.decode(updated.encode()));
+        assertEquals(deleted, SpaceshipChange.decode(deleted.encode()));
+    }
+
+    @Test
+    void testEncodingIsCompact() {
+        SpaceshipChange change = SpaceshipChange.updated(spaceship(42L, "Enterprise", "Starship", 3L), new SpaceshipPatch("Enterprise", null, null));
+
+        assertEquals(16, change.encode().length);
+        assertTrue(change.encode().length < "Updated spaceship: Enterprise".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void testLargestChangeFitsTheOutboxColumn() {
+        String longest = "€".repeat(255);
+        SpaceshipChange change = new SpaceshipChange(Operation.CREATED, -1L, -1L, Set.of(Field.values()), longest, longest, longest);
+
+        assertEquals(SpaceshipChange.MAX_ENCODED_SIZE, change.encode().length);
+        assertThrows(IllegalArgumentException.class, () ->
+                new SpaceshipChange(Operation.CREATED, -1L, -1L, Set.of(Field.values()), longest + "€", longest, longest).encode());
+    }
+
+    @Test
+    void testMergeOverlaysUpdatesAndKeepsCreation() {
+        SpaceshipChange created = SpaceshipChange.created(spaceship(1L, "Enterprise", "Starship", 0L));
+        SpaceshipChange renamed = SpaceshipChange.updated(spaceship(1L, "Enterprise-A", "Starship", 1L), new SpaceshipPatch("Enterprise-A", null, null));
+        SpaceshipChange retyped = SpaceshipChange.updated(spaceship(1L, "Enterprise-A", "Cruiser", 2L), new SpaceshipPatch(null, "Cruiser", null));
+
+        SpaceshipChange merged = created.merge(renamed).merge(retyped);
+        assertEquals(new SpaceshipChange(Operation.CREATED, 1L, 2L, Set.of(Field.values()), "Enterprise-A", "Cruiser", "Star Trek"), merged);
+
+        SpaceshipChange updates = renamed.merge(retyped);
+        assertEquals(new SpaceshipChange(Operation.UPDATED, 1L, 2L, Set.of(Field.NAME, Field.TYPE), "Enterprise-A", "Cruiser", null), updates);
+
+        assertEquals(SpaceshipChange.deleted(1L), updates.merge(SpaceshipChange.deleted(1L)));
+    }
+
+    @Test
+    void testDescribe() {
+        assertEquals("UPDATED 42 v3 name=Enterprise",
+                SpaceshipChange.updated(spaceship(42L, "Enterprise", "Starship", 3L), new SpaceshipPatch("Enterprise", null, null)).describe());
+        assertEquals("DELETED 42", SpaceshipChange.deleted(42L).describe());
+    }
+
+    @Test
+    void testDecodeRejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> SpaceshipChange.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> SpaceshipChange.decode(new byte[]{2, 0, 1, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> SpaceshipChange.decode(new byte[]{1, 7, 1, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> SpaceshipChange.decode(new byte[]{1, 1, 1, 0, 1, 20, 'a'}));
+    }
+
+    private static Spaceship spaceship(Long id, String name, String type, long version) {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(id);
+        spaceship.setName(name);
+        spaceship.setType(type);
+        spaceship.setSource("Star Trek");
+        spaceship.setVersion(version);
+        return spaceship;
+    }
+}
@@ -11,11 +11,14 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -50,6 +53,30 @@ class GlobalExceptionHandlerTest {
         assertEquals("Invalid ID", response.getBody().getMessage());
     }
 
+    @Test
+    void testHandleMethodArgumentTypeMismatchException() {
+        MethodArgumentTypeMismatchException ex = new MethodArgumentTypeMismatchException("yesterday", Instant.class, "from", null, null);
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleMethodArgumentTypeMismatchException(ex);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid value for parameter 'from'.", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleInvalidExportFormatException() {
+        InvalidExportFormatException ex = new InvalidExportFormatException("Format must be ndjson or csv.");
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleInvalidExportFormatException(ex);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Format must be ndjson or csv.", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleOptimisticLockingFailureException() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException("Spaceship", 1L);
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleOptimisticLockingFailureException(ex);
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertEquals("The spaceship was modified by another request.", response.getBody().getMessage());
+    }
+
     @Test
     void testHandleNoResourceFoundException() {
         NoResourceFoundException ex = mock(NoResourceFoundException.class);
@@ -0,0 +1,116 @@
+package com.emaflores.spaceships.limiter;
+
+import com.emaflores.spaceships.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testRejectsBeyondLimitWithoutQueue() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 0, Duration.ZERO);
+
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+
+        assertEquals(2, limiter.inflight());
+        assertEquals(2.0, meterRegistry.get("spaceships.limiter.requests").tag("outcome", "accepted").counter().count());
+        assertEquals(1.0, meterRegistry.get("spaceships.limiter.requests").tag("outcome", "rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("spaceships.limiter.limit").gauge().value());
+    }
+
+    @Test
+    void testQueuedRequestRunsWhenPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        assertTrue(limiter.acquire());
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.waiting() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, limiter.waiting());
+        assertFalse(limiter.acquire());
+
+        limiter.releaseIgnored();
+
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.inflight());
+    }
+
+    @Test
+    void testLimitGrowsAdditivelyWhileBusyAndFast() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 0, Duration.ZERO);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < limiter.limit(); i++) {
+                assertTrue(limiter.acquire());
+            }
+            while (limiter.inflight() > 0) {
+                limiter.release(TARGET / 2, false);
+            }
+        }
+
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    void testLimitBacksOffOncePerLatencyTarget() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 0, Duration.ZERO);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+        }
+
+        for (int i = 0; i < 5; i++) {
+            limiter.release(TARGET * 3, false);
+        }
+        assertEquals(18, limiter.limit());
+
+        clock.addAndGet(TARGET);
+        limiter.release(0, true);
+        assertEquals(16, limiter.limit());
+
+        while (limiter.inflight() > 0) {
+            limiter.release(TARGET * 3, false);
+        }
+        assertEquals(16, limiter.limit());
+
+        for (int i = 0; i < 100; i++) {
+            clock.addAndGet(TARGET);
+            assertTrue(limiter.acquire());
+            limiter.release(TARGET * 3, false);
+        }
+        assertEquals(1, limiter.limit());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int maxQueue, Duration maxWait) {
+        ConcurrencyLimitProperties.Limit settings = new ConcurrencyLimitProperties.Limit(
+                initial, 1, 100, Duration.ofNanos(TARGET), 0.9, maxQueue, maxWait);
+        return new AdaptiveConcurrencyLimiter("read", settings, meterRegistry, clock::get);
+    }
+}
@@ -0,0 +1,84 @@
+package com.emaflores.spaceships.limiter;
+
+import com.emaflores.spaceships.config.ConcurrencyLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimiter readLimiter;
+    private AdaptiveConcurrencyLimiter writeLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        readLimiter = new AdaptiveConcurrencyLimiter("read", limit(), meterRegistry);
+        writeLimiter = new AdaptiveConcurrencyLimiter("write", limit(), meterRegistry);
+        filter = new ConcurrencyLimitFilter(readLimiter, writeLimiter, Duration.ofSeconds(2), new ObjectMapper());
+    }
+
+    @Test
+    void testReleasesPermitAfterRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, res) -> assertEquals(1, readLimiter.inflight());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/spaceships/1"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, readLimiter.inflight());
+    }
+
+    @Test
+    void testRejectsWithRetryAfterWhenReadLimitIsReached() throws Exception {
+        assertTrue(readLimiter.acquire());
+        assertTrue(readLimiter.acquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/spaceships"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("overloaded"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testWritesUseTheirOwnLimit() throws Exception {
+        assertTrue(readLimiter.acquire());
+        assertTrue(readLimiter.acquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, res) -> assertEquals(1, writeLimiter.inflight());
+
+        filter.doFilter(new MockHttpServletRequest("PATCH", "/api/spaceships/1"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, writeLimiter.inflight());
+    }
+
+    @Test
+    void testReleasesPermitWhenRequestFails() {
+        FilterChain chain = (request, res) -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("POST", "/api/spaceships"), new MockHttpServletResponse(), chain));
+        assertEquals(0, writeLimiter.inflight());
+    }
+
+    private static ConcurrencyLimitProperties.Limit limit() {
+        return new ConcurrencyLimitProperties.Limit(2, 2, 10, Duration.ofMillis(100), 0.9, 0, Duration.ZERO);
+    }
+}
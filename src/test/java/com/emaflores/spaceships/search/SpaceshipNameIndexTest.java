@@ -0,0 +1,112 @@
+package com.emaflores.spaceships.search;
+
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpaceshipNameIndexTest {
+
+    @InjectMocks
+    private SpaceshipNameIndex index;
+
+    @Mock
+    private SpaceshipRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRebuildLoadsAllBatches() {
+        Spaceship enterprise = spaceship(1L, "Enterprise");
+        Spaceship voyager = spaceship(2L, "Voyager");
+
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(enterprise, voyager));
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(2L)).thenReturn(Collections.emptyList());
+
+        assertFalse(index.isReady());
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), index.search("ENTER"));
+        assertEquals(List.of(2L), index.search("yag"));
+    }
+
+    @Test
+    void testRebuildKeepsWritesMadeWhileLoading() {
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenAnswer(invocation -> {
+            List<Spaceship> batch = Arrays.asList(spaceship(1L, "Enterprise"), spaceship(2L, "Defiant"));
+            index.put(1L, "Voyager");
+            index.remove(2L);
+            return batch;
+        });
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(2L)).thenReturn(Collections.emptyList());
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), index.search("voyager"));
+        assertTrue(index.search("enterprise").isEmpty());
+        assertTrue(index.search("defiant").isEmpty());
+
+        assertNull(ReflectionTestUtils.getField(index, "touched"));
+    }
+
+    @Test
+    void testSearchSubstringsOfAnyLength() {
+        index.put(1L, "Enterprise");
+        index.put(2L, "Endeavour");
+        index.put(3L, "Defiant");
+
+        assertEquals(List.of(1L, 2L), index.search("en"));
+        assertEquals(List.of(1L), index.search("terpri"));
+        assertEquals(List.of(1L, 2L, 3L), index.search(""));
+        assertTrue(index.search("xyz").isEmpty());
+    }
+
+    @Test
+    void testSearchRequiresContiguousMatch() {
+        index.put(1L, "abcxbcd");
+
+        assertTrue(index.search("abcd").isEmpty());
+        assertEquals(List.of(1L), index.search("bcd"));
+    }
+
+    @Test
+    void testPutReplacesPreviousName() {
+        index.put(1L, "Enterprise");
+        index.put(1L, "Voyager");
+
+        assertTrue(index.search("enter").isEmpty());
+        assertEquals(List.of(1L), index.search("voy"));
+        assertEquals("voyager", index.nameOf(1L));
+    }
+
+    @Test
+    void testRemove() {
+        index.put(1L, "Enterprise");
+        index.remove(1L);
+
+        assertTrue(index.search("enter").isEmpty());
+        assertNull(index.nameOf(1L));
+    }
+
+    private Spaceship spaceship(Long id, String name) {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(id);
+        spaceship.setName(name);
+        return spaceship;
+    }
+}
@@ -0,0 +1,142 @@
+package com.emaflores.spaceships.search;
+
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpaceshipTextIndexTest {
+
+    @InjectMocks
+    private SpaceshipTextIndex index;
+
+    @Mock
+    private SpaceshipRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void testRebuildLoadsAllBatches() {
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(Arrays.asList(
+                spaceship(1L, "Enterprise", "Starship", "Star Trek"),
+                spaceship(2L, "Millennium Falcon", "Freighter", "Star Wars")));
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(2L)).thenReturn(Collections.emptyList());
+
+        assertFalse(index.isReady());
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L), search("falcon"));
+        assertEquals(List.of(1L, 2L), search("star"));
+    }
+
+    @Test
+    void testRebuildKeepsWritesMadeWhileLoading() {
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(0L)).thenAnswer(invocation -> {
+            List<Spaceship> batch = Arrays.asList(
+                    spaceship(1L, "Enterprise", "Starship", "Star Trek"),
+                    spaceship(2L, "Defiant", "Warship", "Star Trek"));
+            index.put(spaceship(1L, "Voyager", "Starship", "Star Trek"));
+            index.remove(2L);
+            return batch;
+        });
+        when(repository.findTop1000ByIdGreaterThanOrderByIdAsc(2L)).thenReturn(Collections.emptyList());
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), search("voyager"));
+        assertTrue(search("enterprise").isEmpty());
+        assertTrue(search("defiant").isEmpty());
+    }
+
+    @Test
+    void testSearchesNameTypeAndSource() {
+        index.put(spaceship(1L, "Enterprise", "Starship", "Star Trek"));
+        index.put(spaceship(2L, "Serenity", "Firefly class", "Firefly"));
+        index.put(spaceship(3L, "Millennium Falcon", "Freighter", "Star Wars"));
+
+        assertEquals(List.of(3L), search("freighter"));
+        assertEquals(List.of(2L), search("FIREFLY"));
+        assertEquals(List.of(3L), search("star wars"));
+        assertEquals(List.of(), search("trek wars"));
+    }
+
+    @Test
+    void testPrefixMatching() {
+        index.put(spaceship(1L, "Enterprise", "Starship", "Star Trek"));
+        index.put(spaceship(2L, "Endeavour", "Shuttle", "NASA"));
+
+        assertEquals(List.of(1L, 2L), search("en"));
+        assertEquals(List.of(1L), search("enter"));
+        assertEquals(List.of(), search("prise"));
+    }
+
+    @Test
+    void testNameMatchesRankFirst() {
+        index.put(spaceship(1L, "Nostromo", "Tug", "Voyager lore"));
+        index.put(spaceship(2L, "Voyagerette", "Starship", "Star Trek"));
+        index.put(spaceship(3L, "Voyager", "Starship", "Star Trek"));
+
+        assertEquals(List.of(3L, 2L, 1L), search("voyager"));
+    }
+
+    @Test
+    void testPagingReportsTotal() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(spaceship(id, "Ship " + id, "Starship", "Star Trek"));
+        }
+
+        Page<Long> page = index.search("starship", PageRequest.of(1, 2));
+
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of(3L, 4L), page.getContent());
+    }
+
+    @Test
+    void testUpdatesAndRemovalsAreVisible() {
+        index.put(spaceship(1L, "Enterprise", "Starship", "Star Trek"));
+        assertEquals(List.of(1L), search("enterprise"));
+
+        index.put(spaceship(1L, "Defiant", "Escort", "Star Trek"));
+        assertEquals(List.of(), search("enterprise"));
+        assertEquals(List.of(1L), search("defiant"));
+
+        index.remove(1L);
+        assertEquals(List.of(), search("defiant"));
+    }
+
+    private List<Long> search(String text) {
+        return index.search(text, PageRequest.of(0, 20)).getContent();
+    }
+
+    private static Spaceship spaceship(Long id, String name, String type, String source) {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(id);
+        spaceship.setName(name);
+        spaceship.setType(type);
+        spaceship.setSource(source);
+        return spaceship;
+    }
+}
@@ -0,0 +1,75 @@
+package com.emaflores.spaceships.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder passwordEncoder;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString()))
+                .thenAnswer(invocation -> ("{noop}" + invocation.getArgument(0)).equals(invocation.getArgument(1)));
+        UserDetailsService userDetailsService = new InMemoryUserDetailsManager(
+                User.withUsername("user").password("{noop}password").roles("USER").build(),
+                User.withUsername("admin").password("{noop}adminpassword").roles("ADMIN").build());
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(passwordEncoder);
+        delegate.setUserDetailsService(userDetailsService);
+        provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testRepeatedCredentialsAreVerifiedOnce() {
+        Authentication first = provider.authenticate(credentials("user", "password"));
+        Authentication second = provider.authenticate(credentials("user", "password"));
+
+        assertTrue(second.isAuthenticated());
+        assertEquals("user", second.getName());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertNull(second.getCredentials());
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void testWrongPasswordIsNeverCached() {
+        provider.authenticate(credentials("user", "password"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        verify(passwordEncoder, times(3)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void testCredentialsAreCachedPerUser() {
+        Authentication user = provider.authenticate(credentials("user", "password"));
+        Authentication admin = provider.authenticate(credentials("admin", "adminpassword"));
+
+        assertEquals("ROLE_USER", user.getAuthorities().iterator().next().getAuthority());
+        assertEquals("ROLE_ADMIN", admin.getAuthorities().iterator().next().getAuthority());
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("admin", "password")));
+        verify(passwordEncoder, times(3)).matches(anyString(), any());
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
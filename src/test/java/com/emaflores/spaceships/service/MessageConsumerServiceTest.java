@@ -0,0 +1,76 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class MessageConsumerServiceTest {
+
+    @InjectMocks
+    private MessageConsumerService consumerService;
+
+    @Mock
+    private MessageLogService messageLogService;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(consumerService, "meterRegistry", meterRegistry);
+        consumerService.init();
+    }
+
+    @Test
+    void testReceiveMessagesInsertsWholeBatch() {
+        when(messageLogService.append(List.of("Created spaceship: A", "Deleted spaceship with ID: 1"))).thenReturn(2);
+
+        consumerService.receiveMessages(List.of(message("Created spaceship: A", new Date()), message("Deleted spaceship with ID: 1", null)));
+
+        verify(messageLogService, times(1)).append(List.of("Created spaceship: A", "Deleted spaceship with ID: 1"));
+        assertEquals(2.0, meterRegistry.get("spaceships.messages.consumed").counter().count());
+        assertEquals(1, meterRegistry.get("spaceships.messages.batch.size").summary().count());
+        assertEquals(1, meterRegistry.get("spaceships.messages.lag").timer().count());
+    }
+
+    @Test
+    void testReceiveMessagesDecodesChangeEvents() {
+        Message deleted = message(SpaceshipChange.deleted(7L).encode(), null);
+        Message malformed = message(new byte[]{1, 9}, null);
+        Message legacy = message("Created spaceship: A".getBytes(StandardCharsets.UTF_8), null);
+        legacy.getMessageProperties().setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+
+        consumerService.receiveMessages(List.of(deleted, malformed, legacy));
+
+        verify(messageLogService).append(List.of("DELETED 7", "Created spaceship: A"));
+    }
+
+    private Message message(String body, Date timestamp) {
+        MessageProperties properties = new MessageProperties();
+        properties.setTimestamp(timestamp);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private Message message(byte[] body, Date timestamp) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(SpaceshipChange.CONTENT_TYPE);
+        properties.setTimestamp(timestamp);
+        return new Message(body, properties);
+    }
+}
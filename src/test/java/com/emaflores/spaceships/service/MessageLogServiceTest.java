@@ -0,0 +1,107 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.MessageLogView;
+import com.emaflores.spaceships.exception.InvalidCursorException;
+import com.emaflores.spaceships.repository.MessageLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageLogServiceTest {
+
+    @InjectMocks
+    private MessageLogService messageLogService;
+
+    @Mock
+    private MessageLogRepository messageLogRepository;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(messageLogService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(messageLogService, "executor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void testBucketsAreDays() {
+        assertEquals(0, MessageLogService.bucketOf(Instant.parse("1970-01-01T23:59:59Z")));
+        assertEquals(20379, MessageLogService.bucketOf(Instant.parse("2025-10-18T12:00:00Z")));
+    }
+
+    @Test
+    void testAppendStampsTimestampAndBucket() {
+        messageLogService.append(List.of("DELETED 7"));
+
+        verify(messageLogRepository).insertAll(eq(List.of("DELETED 7")), argThat(timestamp -> timestamp.getNano() % 1000 == 0),
+                eq(MessageLogService.bucketOf(Instant.now())));
+    }
+
+    @Test
+    void testFindContinuesFromCursor() {
+        Instant from = Instant.parse("2025-10-18T00:00:00Z");
+        Instant to = Instant.parse("2025-10-19T00:00:00Z");
+        MessageLogView first = new MessageLogView(1L, "CREATED 1 v0", from.plusSeconds(10));
+        MessageLogView second = new MessageLogView(2L, "DELETED 1", from.plusSeconds(10));
+        when(messageLogRepository.findRange(from, 0L, to, 2)).thenReturn(List.of(first, second));
+        when(messageLogRepository.findRange(from.plusSeconds(10), 2L, to, 2)).thenReturn(List.of());
+
+        CursorPage<MessageLogView> page = messageLogService.find(from, to, null, 2);
+        assertEquals(List.of(first, second), page.content());
+        assertNotNull(page.nextCursor());
+
+        CursorPage<MessageLogView> next = messageLogService.find(from, to, page.nextCursor(), 2);
+        assertEquals(0, next.size());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void testFindWithoutBoundsAndInvalidCursor() {
+        messageLogService.find(null, null, null, 20);
+
+        verify(messageLogRepository).findRange(eq(Instant.EPOCH), eq(0L), argThat(end -> end.isAfter(Instant.now().plus(Duration.ofDays(365)))), eq(20));
+        assertThrows(InvalidCursorException.class, () -> messageLogService.find(null, null, "not-a-cursor", 20));
+    }
+
+    @Test
+    void testPurgeDeletesExpiredBucketsInBatches() {
+        long today = MessageLogService.bucketOf(Instant.now());
+        ReflectionTestUtils.setField(messageLogService, "purgeBatchSize", 2);
+        when(messageLogRepository.findOldestBucket()).thenReturn(today - 40, today - 35, today - 1);
+        when(messageLogRepository.deleteBucket(today - 40, 2)).thenReturn(2, 1);
+        when(messageLogRepository.deleteBucket(today - 35, 2)).thenReturn(2, 2, 0);
+
+        messageLogService.schedulePurge();
+
+        verify(messageLogRepository, times(2)).deleteBucket(today - 40, 2);
+        verify(messageLogRepository, times(3)).deleteBucket(today - 35, 2);
+        verify(messageLogRepository, never()).deleteBucket(eq(today - 1), anyInt());
+        assertEquals(7.0, meterRegistry.get("spaceships.messages.log.purged").counter().count());
+    }
+
+    @Test
+    void testPurgeDisabledWithZeroRetention() {
+        ReflectionTestUtils.setField(messageLogService, "retention", Duration.ZERO);
+
+        messageLogService.schedulePurge();
+
+        verifyNoInteractions(messageLogRepository);
+    }
+}
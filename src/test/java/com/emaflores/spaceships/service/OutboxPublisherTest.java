@@ -0,0 +1,153 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.entity.OutboxEvent;
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxPublisherTest {
+
+    @InjectMocks
+    private OutboxPublisher publisher;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(publisher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(publisher, "bufferCapacity", 2);
+        ReflectionTestUtils.setField(publisher, "coalesceWindowMs", 0L);
+        publisher.init();
+    }
+
+    @Test
+    void testPublishBufferedDeletesConfirmedEvents() {
+        assertTrue(publisher.enqueue(event(1L, 0)));
+        assertTrue(publisher.enqueue(event(2L, 0)));
+        assertFalse(publisher.enqueue(event(3L, 0)));
+
+        publisher.publishBuffered();
+
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository, never()).scheduleRetry(anyCollection(), any());
+    }
+
+    @Test
+    void testPublishFailureSchedulesRetryWithBackoff() {
+        when(rabbitTemplate.invoke(any())).thenThrow(new AmqpConnectException(new ConnectException("refused")));
+        when(outboxRepository.findTop500ByNextAttemptAtLessThanEqualOrderByIdAsc(any())).thenReturn(List.of(event(1L, 2)));
+
+        Instant before = Instant.now();
+        publisher.publishDue();
+
+        verify(outboxRepository).scheduleRetry(eq(List.of(1L)), argThat(next -> !next.isBefore(before.plusMillis(4000))));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    @Test
+    void testPublishBufferedWaitsForTheCoalescingWindow() {
+        ReflectionTestUtils.setField(publisher, "coalesceWindowMs", 60_000L);
+        publisher.enqueue(event(1L, 0));
+
+        publisher.publishBuffered();
+
+        verify(rabbitTemplate, never()).invoke(any());
+    }
+
+    @Test
+    void testPublishDueCoalescesChangesToTheSameSpaceship() {
+        RabbitOperations operations = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitTemplate.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        when(outboxRepository.findTop500ByNextAttemptAtLessThanEqualOrderByIdAsc(any())).thenReturn(List.of(
+                event(1L, SpaceshipChange.created(spaceship(7L, "Enterprise", "Starship", 0L))),
+                event(2L, SpaceshipChange.created(spaceship(8L, "Voyager", "Starship", 0L))),
+                event(3L, SpaceshipChange.updated(spaceship(7L, "Enterprise-A", "Starship", 1L), new SpaceshipPatch("Enterprise-A", null, null))),
+                event(4L, SpaceshipChange.updated(spaceship(7L, "Enterprise-A", "Cruiser", 2L), new SpaceshipPatch(null, "Cruiser", null)))));
+        List<SpaceshipChange> sent = new ArrayList<>();
+        doAnswer(invocation -> sent.add(SpaceshipChange.decode(invocation.getArgument(2))))
+                .when(operations).convertAndSend(anyString(), anyString(), any(byte[].class), any(MessagePostProcessor.class));
+
+        publisher.publishDue();
+
+        assertEquals(2, sent.size());
+        assertEquals(SpaceshipChange.Operation.CREATED, sent.get(0).operation());
+        assertEquals(7L, sent.get(0).id());
+        assertEquals(2L, sent.get(0).version());
+        assertEquals("Enterprise-A", sent.get(0).name());
+        assertEquals("Cruiser", sent.get(0).type());
+        assertEquals(8L, sent.get(1).id());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 3L, 4L, 2L));
+    }
+
+    @Test
+    void testMigratedTextEventsArePublishedAsPlainText() {
+        OutboxEvent legacy = event(1L, 0);
+        legacy.setAggregateId(null);
+
+        assertEquals(MessageProperties.CONTENT_TYPE_TEXT_PLAIN, OutboxPublisher.contentType(legacy));
+        assertEquals(SpaceshipChange.CONTENT_TYPE, OutboxPublisher.contentType(event(2L, 0)));
+    }
+
+    @Test
+    void testBackoffIsCapped() {
+        assertEquals(Duration.ofMillis(1000), publisher.backoff(1));
+        assertEquals(Duration.ofMillis(8000), publisher.backoff(4));
+        assertEquals(Duration.ofMillis(60000), publisher.backoff(30));
+    }
+
+    private OutboxEvent event(Long id, int attempts) {
+        OutboxEvent event = event(id, SpaceshipChange.deleted(id));
+        event.setAttempts(attempts);
+        return event;
+    }
+
+    private OutboxEvent event(Long id, SpaceshipChange change) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setRoutingKey("spaceships.routingKey");
+        event.setAggregateId(change.id());
+        event.setPayload(change.encode());
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+
+    private static Spaceship spaceship(Long id, String name, String type, long version) {
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(id);
+        spaceship.setName(name);
+        spaceship.setType(type);
+        spaceship.setSource("Star Trek");
+        spaceship.setVersion(version);
+        return spaceship;
+    }
+}
@@ -0,0 +1,84 @@
+package com.emaflores.spaceships.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceshipExportServiceTest {
+
+    private EmbeddedDatabase database;
+    private SpaceshipExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE spaceship (id BIGINT PRIMARY KEY, name VARCHAR(255), type VARCHAR(255), source VARCHAR(255), version BIGINT)");
+        jdbcTemplate.update("INSERT INTO spaceship VALUES (2, 'Millennium Falcon, \"the\" fastest', 'Freighter', 'Star Wars', 1)");
+        jdbcTemplate.update("INSERT INTO spaceship VALUES (1, 'Enterprise', 'Explorer', 'Star Trek', 0)");
+
+        exportService = new SpaceshipExportService();
+        ReflectionTestUtils.setField(exportService, "dataSource", database);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "fetchSize", 1);
+        exportService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testExportNdjson() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = exportService.export(output, SpaceshipExportService.Format.NDJSON);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Enterprise", first.get("name").asText());
+        assertEquals("Millennium Falcon, \"the\" fastest", new ObjectMapper().readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    void testExportCsv() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = exportService.export(output, SpaceshipExportService.Format.CSV);
+
+        assertEquals(2, rows);
+        assertEquals("id,name,type,source,version\n"
+                        + "1,Enterprise,Explorer,Star Trek,0\n"
+                        + "2,\"Millennium Falcon, \"\"the\"\" fastest\",Freighter,Star Wars,1\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportEmptyTable() throws IOException {
+        new JdbcTemplate(database).update("DELETE FROM spaceship");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.export(output, SpaceshipExportService.Format.NDJSON));
+        assertEquals("", output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.emaflores.spaceships.service;
+
+import com.emaflores.spaceships.cache.SpaceshipCacheInvalidator;
+import com.emaflores.spaceships.dto.BulkImportResult;
+import com.emaflores.spaceships.dto.BulkImportResult.Status;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.entity.Spaceship;
+import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SpaceshipImportServiceTest {
+
+    @InjectMocks
+    private SpaceshipImportService importService;
+
+    @Mock
+    private SpaceshipRepository repository;
+
+    @Mock
+    private SpaceshipNameIndex nameIndex;
+
+    @Mock
+    private SpaceshipTextIndex textIndex;
+
+    @Mock
+    private SpaceshipCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MessageProducerService messageProducerService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Spaceship> spaceships = invocation.getArgument(0);
+            spaceships.forEach(spaceship -> spaceship.setId(ids.incrementAndGet()));
+            return spaceships;
+        });
+    }
+
+    @Test
+    void testImportJsonArrayInChunks() throws IOException {
+        when(repository.findExistingNames(anyCollection())).thenReturn(List.of("defiant"));
+
+        List<BulkImportResult> results = importService.importSpaceships(input("""
+                [{"name":"Enterprise","type":"Explorer","source":"Earth"},
+                 {"name":"Voyager","type":"Explorer","source":"Earth"},
+                 {"name":"Defiant","type":"Warship","source":"Earth"}]"""));
+
+        assertEquals(3, results.size());
+        assertEquals(Status.CREATED, results.get(0).status());
+        assertEquals(Status.CREATED, results.get(1).status());
+        assertEquals(Status.DUPLICATE, results.get(2).status());
+        verify(repository, times(2)).findExistingNames(anyCollection());
+        verify(repository, times(1)).saveAll(anyList());
+        verify(nameIndex).put(1L, "Enterprise");
+        verify(cacheInvalidator).saved(isNull(), argThat(view -> view.id() == 1L && view.name().equals("Enterprise")));
+        verify(cacheInvalidator).saved(isNull(), argThat(view -> view.id() == 2L && view.name().equals("Voyager")));
+        verify(cacheInvalidator, never()).clearAll();
+        verify(messageProducerService).sendChanges(argThat(changes -> changes.stream().map(SpaceshipChange::id).toList().equals(List.of(1L, 2L))
+                && changes.stream().allMatch(change -> change.operation() == SpaceshipChange.Operation.CREATED)));
+    }
+
+    @Test
+    void testImportNdjsonRejectsInvalidAndRepeatedRows() throws IOException {
+        List<BulkImportResult> results = importService.importSpaceships(input("""
+                {"name":"Enterprise","type":"Explorer","source":"Earth"}
+                {"name":"ENTERPRISE","type":"Explorer","source":"Earth"}
+                {"name":"Voyager","source":"Earth"}
+                """));
+
+        assertEquals(Status.CREATED, results.get(0).status());
+        assertEquals(Status.DUPLICATE, results.get(1).status());
+        assertEquals(Status.INVALID, results.get(2).status());
+        assertEquals("Type is required", results.get(2).message());
+    }
+
+    @Test
+    void testImportWithoutCreatedRowsKeepsCaches() throws IOException {
+        List<BulkImportResult> results = importService.importSpaceships(input("{\"name\":\"Voyager\"}"));
+
+        assertEquals(Status.INVALID, results.get(0).status());
+        verify(repository, never()).saveAll(anyList());
+        verifyNoInteractions(cacheInvalidator);
+        verify(messageProducerService, never()).sendChanges(anyList());
+    }
+
+    private ByteArrayInputStream input(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,20 +1,50 @@
 package com.emaflores.spaceships.service;
 
+import com.emaflores.spaceships.cache.SpaceshipCacheInvalidator;
+import com.emaflores.spaceships.cache.SpaceshipStore;
+import com.emaflores.spaceships.dto.CursorPage;
+import com.emaflores.spaceships.dto.PreSerialized;
+import com.emaflores.spaceships.dto.SpaceshipChange;
+import com.emaflores.spaceships.dto.SpaceshipPatch;
+import com.emaflores.spaceships.dto.SpaceshipView;
 import com.emaflores.spaceships.entity.Spaceship;
 import com.emaflores.spaceships.exception.DuplicateSpaceshipException;
+import com.emaflores.spaceships.exception.InvalidCursorException;
 import com.emaflores.spaceships.repository.SpaceshipRepository;
+import com.emaflores.spaceships.repository.SpaceshipRow;
+import com.emaflores.spaceships.search.SpaceshipNameIndex;
+import com.emaflores.spaceships.search.SpaceshipTextIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,64 +58,218 @@ class SpaceshipServiceTest {
     @Mock
     private SpaceshipRepository repository;
 
+    @Mock
+    private SpaceshipNameIndex nameIndex;
+
+    @Mock
+    private SpaceshipTextIndex textIndex;
+
+    @Mock
+    private SpaceshipCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MessageProducerService messageProducerService;
+
+    @Spy
+    private SpaceshipStore store = new SpaceshipStore();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(SpaceshipCacheInvalidator.BY_ID_CACHE);
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(store, "enabled", true);
     }
 
     @Test
     void testFindAll() {
         Pageable pageable = PageRequest.of(0, 10);
-        Spaceship spaceship = new Spaceship();
-        spaceship.setName("Enterprise");
-        List<Spaceship> spaceshipList = Arrays.asList(spaceship);
-        Page<Spaceship> page = new PageImpl<>(spaceshipList);
+        List<SpaceshipView> spaceshipList = Arrays.asList(view(1L, "Enterprise"));
+        Page<SpaceshipView> page = new PageImpl<>(spaceshipList);
 
-        when(repository.findAll(pageable)).thenReturn(page);
+        when(repository.findAllBy(pageable)).thenReturn(page);
 
-        Page<Spaceship> result = service.findAll(pageable);
+        Page<SpaceshipView> result = service.findAll(pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        assertEquals("Enterprise", result.getContent().get(0).getName());
+        assertEquals("Enterprise", result.getContent().get(0).name());
+        verify(repository, never()).findAll(any(Pageable.class));
     }
 
     @Test
-    void testFindById() {
-        Spaceship spaceship = new Spaceship();
-        spaceship.setId(1L);
-        spaceship.setName("Enterprise");
+    void testFindAllByCursor() {
+        Sort sort = Sort.by("name");
+
+        when(repository.findBy(ScrollPosition.keyset(), sort, Limit.of(2))).thenReturn(Window.from(Arrays.asList(row(1L, "Defiant"), row(2L, "Enterprise")),
+                i -> ScrollPosition.forward(Map.of("name", i == 0 ? "Defiant" : "Enterprise", "id", i + 1L)), true));
+
+        CursorPage<SpaceshipView> page = service.findAll("", 2, sort);
+
+        assertEquals(2, page.size());
+        assertEquals(view(2L, "Enterprise"), page.content().get(1));
+        assertNotNull(page.nextCursor());
+
+        when(repository.findBy(any(KeysetScrollPosition.class), eq(sort), eq(Limit.of(2)))).thenReturn(Window.from(Arrays.asList(),
+                ScrollPosition::offset, false));
+
+        CursorPage<SpaceshipView> last = service.findAll(page.nextCursor(), 2, Sort.by("type"));
+
+        verify(repository).findBy(ScrollPosition.forward(Map.of("name", "Enterprise", "id", 2L)), sort, Limit.of(2));
+        assertEquals(0, last.size());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void testFindAllByInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> service.findAll("not-a-cursor", 10, Sort.unsorted()));
+        String foreignProperty = Base64.getUrlEncoder().encodeToString("{\"sort\":[],\"keys\":{\"password\":1}}".getBytes());
+        assertThrows(InvalidCursorException.class, () -> service.findAll(foreignProperty, 10, Sort.unsorted()));
+    }
 
-        when(repository.findById(1L)).thenReturn(Optional.of(spaceship));
+    @Test
+    void testFindById() throws Exception {
+        when(repository.findViewById(1L)).thenReturn(Optional.of(view(1L, "Enterprise")));
 
-        Optional<Spaceship> result = service.findById(1L);
+        Optional<PreSerialized<SpaceshipView>> result = service.findById(1L);
 
         assertTrue(result.isPresent());
-        assertEquals("Enterprise", result.get().getName());
+        assertEquals("Enterprise", result.get().value().name());
+        assertEquals(objectMapper.writeValueAsString(view(1L, "Enterprise")), new String(result.get().json(), StandardCharsets.UTF_8));
+        verify(repository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testFindByIdReadsThroughStore() {
+        when(repository.findViewById(1L)).thenReturn(Optional.of(view(1L, "Enterprise")));
+
+        service.findById(1L);
+        Optional<PreSerialized<SpaceshipView>> result = service.findById(1L);
+
+        assertEquals(view(1L, "Enterprise"), result.orElseThrow().value());
+        verify(repository, times(1)).findViewById(1L);
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void testCacheFillRacingAnInvalidationIsReadAgain() {
+        when(cacheInvalidator.generation()).thenReturn(0L, 1L);
+        when(repository.findViewById(1L)).thenReturn(Optional.of(view(1L, "Enterprise")))
+                .thenReturn(Optional.of(view(1L, "Voyager")));
+
+        assertEquals("Voyager", service.findById(1L).orElseThrow().value().name());
+        verify(repository, times(2)).findViewById(1L);
+    }
+
+    @Test
+    void testCacheFillAfterRecentInvalidationReadsOnce() {
+        when(cacheInvalidator.invalidatedWithin(any())).thenReturn(true);
+        when(repository.findViewById(1L)).thenReturn(Optional.of(view(1L, "Voyager")));
+
+        assertEquals("Voyager", service.findById(1L).orElseThrow().value().name());
+        verify(repository, times(1)).findViewById(1L);
+        verify(cacheInvalidator, never()).generation();
     }
 
     @Test
     void testFindByIdNotFound() {
-        when(repository.findById(1L)).thenReturn(Optional.empty());
+        when(repository.findViewById(1L)).thenReturn(Optional.empty());
 
-        Optional<Spaceship> result = service.findById(1L);
+        Optional<PreSerialized<SpaceshipView>> result = service.findById(1L);
 
         assertFalse(result.isPresent());
     }
 
     @Test
-    void testFindByName() {
-        Spaceship spaceship = new Spaceship();
-        spaceship.setName("Enterprise");
-        List<Spaceship> spaceshipList = Arrays.asList(spaceship);
+    void testFindAllByIdFetchesMissesInChunks() {
+        ReflectionTestUtils.setField(service, "multiGetChunkSize", 1);
+        Cache cache = cacheManager.getCache(SpaceshipCacheInvalidator.BY_ID_CACHE);
+        cache.put(1L, PreSerialized.of(view(1L, "Enterprise"), objectMapper));
+        cache.put(5L, null);
+        store.put(view(2L, "Voyager"), store.invalidations());
+        when(repository.findViewsByIdIn(List.of(3L))).thenReturn(List.of(view(3L, "Defiant")));
+
+        List<PreSerialized<SpaceshipView>> result = service.findAllById(List.of(3L, 1L, 2L, 4L, 5L));
+
+        assertEquals(List.of(3L, 1L, 2L), result.stream().map(spaceship -> spaceship.value().id()).toList());
+        verify(repository).findViewsByIdIn(List.of(3L));
+        verify(repository).findViewsByIdIn(List.of(4L));
+        verify(repository, never()).findViewsByIdIn(List.of(5L));
+        verify(repository, never()).findViewById(anyLong());
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertNotNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+        assertTrue(store.get(3L).isPresent());
+    }
+
+    @Test
+    void testFindAllByIdDoesNotCacheAfterConcurrentInvalidation() {
+        when(cacheInvalidator.generation()).thenReturn(0L, 1L);
+        when(repository.findViewsByIdIn(List.of(1L))).thenReturn(List.of(view(1L, "Enterprise")));
+
+        List<PreSerialized<SpaceshipView>> result = service.findAllById(List.of(1L));
+
+        assertEquals(1, result.size());
+        assertNull(cacheManager.getCache(SpaceshipCacheInvalidator.BY_ID_CACHE).get(1L));
+    }
+
+    @Test
+    void testFindByName() throws Exception {
+        List<SpaceshipView> spaceshipList = Arrays.asList(view(1L, "Enterprise"));
 
         when(repository.findByNameContainingIgnoreCase("Enterprise")).thenReturn(spaceshipList);
 
-        List<Spaceship> result = service.findByName("Enterprise");
+        PreSerialized<List<SpaceshipView>> result = service.findByName("Enterprise");
 
         assertNotNull(result);
+        assertEquals(1, result.value().size());
+        assertEquals("Enterprise", result.value().get(0).name());
+        assertEquals(objectMapper.writeValueAsString(spaceshipList), new String(result.json(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFindByNameUsesIndex() {
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search("prise")).thenReturn(Arrays.asList(1L, 2L));
+        when(repository.findViewsByIdIn(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(view(2L, "Voyager"), view(1L, "Enterprise")));
+
+        List<SpaceshipView> result = service.findByName("prise").value();
+
         assertEquals(1, result.size());
-        assertEquals("Enterprise", result.get(0).getName());
+        assertEquals("Enterprise", result.get(0).name());
+        verify(repository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void testSearchKeepsRelevanceOrder() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(textIndex.isReady()).thenReturn(true);
+        when(textIndex.search("star", pageable)).thenReturn(new PageImpl<>(Arrays.asList(3L, 1L, 2L), pageable, 3));
+        when(repository.findViewsByIdIn(Arrays.asList(3L, 1L, 2L)))
+                .thenReturn(Arrays.asList(view(1L, "Enterprise"), view(3L, "Star Destroyer")));
+
+        Page<SpaceshipView> result = service.search("star", pageable);
+
+        assertEquals(List.of("Star Destroyer", "Enterprise"), result.getContent().stream().map(SpaceshipView::name).toList());
+        assertEquals(2, result.getTotalElements());
+        verify(repository, never()).findByTextContainingIgnoreCase(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void testSearchFallsBackToDatabaseUntilIndexIsReady() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Page<SpaceshipView> page = new PageImpl<>(List.of(view(1L, "Enterprise")), pageable, 1);
+        when(repository.findByTextContainingIgnoreCase("trek", pageable)).thenReturn(page);
+
+        assertSame(page, service.search("trek", pageable));
+        verify(textIndex, never()).search(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -94,57 +278,146 @@ class SpaceshipServiceTest {
         spaceship.setId(1L);
         spaceship.setName("Enterprise");
 
-        when(repository.findByNameContainingIgnoreCase("Enterprise")).thenReturn(Arrays.asList());
-        when(repository.save(spaceship)).thenReturn(spaceship);
+        when(repository.saveAndFlush(spaceship)).thenReturn(spaceship);
 
         Spaceship result = service.save(spaceship);
 
         assertNotNull(result);
         assertEquals("Enterprise", result.getName());
+        verify(repository, never()).findByNameContainingIgnoreCase(anyString());
+        verify(messageProducerService).sendChange(SpaceshipChange.created(spaceship));
+    }
+
+    @Test
+    void testSaveInvalidatesWithPreviousState() {
+        SpaceshipView previous = view(1L, "Enterprise");
+        Spaceship spaceship = new Spaceship();
+        spaceship.setId(1L);
+        spaceship.setName("Voyager");
+
+        when(cacheInvalidator.cached(1L)).thenReturn(Optional.of(previous));
+        when(repository.saveAndFlush(spaceship)).thenReturn(spaceship);
+
+        service.save(spaceship);
+
+        verify(repository, never()).findViewById(1L);
+        verify(nameIndex).put(1L, "Voyager");
+        verify(cacheInvalidator).saved(previous, SpaceshipView.of(spaceship));
     }
 
     @Test
     void testSaveDuplicate() {
         Spaceship spaceship = new Spaceship();
-        spaceship.setId(2L); // Different ID to simulate another existing spaceship
         spaceship.setName("Enterprise");
 
-        Spaceship existingSpaceship = new Spaceship();
-        existingSpaceship.setId(1L);
-        existingSpaceship.setName("Enterprise");
-
-        when(repository.findByNameContainingIgnoreCase("Enterprise")).thenReturn(Arrays.asList(existingSpaceship));
+        when(repository.saveAndFlush(spaceship)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new SQLException("Unique index or primary key violation", "23505")));
 
         assertThrows(DuplicateSpaceshipException.class, () -> {
             service.save(spaceship);
         });
+        verify(nameIndex, never()).put(any(), any());
+        verifyNoInteractions(messageProducerService);
     }
 
     @Test
-    void testSaveDuplicateSameId() {
+    void testSaveOtherIntegrityViolationIsRethrown() {
         Spaceship spaceship = new Spaceship();
-        spaceship.setId(1L);
         spaceship.setName("Enterprise");
 
-        Spaceship existingSpaceship = new Spaceship();
-        existingSpaceship.setId(1L);
-        existingSpaceship.setName("Enterprise");
+        when(repository.saveAndFlush(spaceship)).thenThrow(new DataIntegrityViolationException("null",
+                new SQLException("NULL not allowed for column", "23502")));
 
-        when(repository.findByNameContainingIgnoreCase("Enterprise")).thenReturn(Arrays.asList(existingSpaceship));
-        when(repository.save(spaceship)).thenReturn(spaceship);
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            service.save(spaceship);
+        });
+    }
 
-        Spaceship result = service.save(spaceship);
+    @Test
+    void testUpdate() {
+        Spaceship previous = new Spaceship();
+        previous.setId(1L);
+        previous.setName("Enterprise");
+        previous.setType("Explorer");
+        previous.setSource("Star Trek");
+        previous.setVersion(2L);
+        SpaceshipPatch patch = new SpaceshipPatch("Voyager", null, null);
+
+        when(repository.updateReturningPrevious(1L, patch, null)).thenReturn(Optional.of(previous));
+
+        Spaceship result = service.update(1L, patch, null).orElseThrow();
+
+        assertEquals("Voyager", result.getName());
+        assertEquals("Explorer", result.getType());
+        assertEquals("Star Trek", result.getSource());
+        assertEquals(3L, result.getVersion());
+        verify(repository, never()).findById(anyLong());
+        verify(nameIndex).put(1L, "Voyager");
+        verify(cacheInvalidator).saved(SpaceshipView.of(previous), SpaceshipView.of(result));
+        verify(messageProducerService).sendChange(SpaceshipChange.updated(result, patch));
+    }
 
-        assertNotNull(result);
-        assertEquals("Enterprise", result.getName());
+    @Test
+    void testUpdateNotFound() {
+        SpaceshipPatch patch = new SpaceshipPatch("Voyager", null, null);
+
+        when(repository.updateReturningPrevious(1L, patch, null)).thenReturn(Optional.empty());
+
+        assertTrue(service.update(1L, patch, null).isEmpty());
+        verifyNoInteractions(nameIndex, cacheInvalidator, messageProducerService);
+    }
+
+    @Test
+    void testUpdateWithStaleVersion() {
+        SpaceshipPatch patch = new SpaceshipPatch("Voyager", null, null);
+
+        when(repository.updateReturningPrevious(1L, patch, 2L)).thenReturn(Optional.empty());
+        when(repository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.update(1L, patch, 2L));
+        verifyNoInteractions(nameIndex, cacheInvalidator, messageProducerService);
+    }
+
+    @Test
+    void testUpdateDuplicate() {
+        SpaceshipPatch patch = new SpaceshipPatch("Voyager", null, null);
+
+        when(repository.updateReturningPrevious(1L, patch, null)).thenThrow(new DataIntegrityViolationException("duplicate",
+                new SQLException("Unique index or primary key violation", "23505")));
+
+        assertThrows(DuplicateSpaceshipException.class, () -> service.update(1L, patch, null));
     }
 
     @Test
-    void testDeleteById() {
-        doNothing().when(repository).deleteById(1L);
+    void testDelete() {
+        Spaceship previous = new Spaceship();
+        previous.setId(1L);
+
+        when(repository.deleteReturningPrevious(1L)).thenReturn(Optional.of(previous));
+
+        assertTrue(service.delete(1L));
+
+        verify(repository, never()).deleteById(anyLong());
+        verify(nameIndex, times(1)).remove(1L);
+        verify(cacheInvalidator, times(1)).deleted(1L, SpaceshipView.of(previous));
+        verify(messageProducerService).sendChange(SpaceshipChange.deleted(1L));
+    }
 
-        service.deleteById(1L);
+    @Test
+    void testDeleteNotFound() {
+        when(repository.deleteReturningPrevious(1L)).thenReturn(Optional.empty());
+
+        assertFalse(service.delete(1L));
+
+        verifyNoInteractions(nameIndex, cacheInvalidator, messageProducerService);
+    }
+
+    private static SpaceshipView view(Long id, String name) {
+        return new SpaceshipView(id, name, "Explorer", "Star Trek", 0L);
+    }
 
-        verify(repository, times(1)).deleteById(1L);
+    private static SpaceshipRow row(Long id, String name) {
+        return new SpelAwareProxyProjectionFactory().createProjection(SpaceshipRow.class,
+                Map.of("id", id, "name", name, "type", "Explorer", "source", "Star Trek", "version", 0L));
     }
 }
\ No newline at end of file